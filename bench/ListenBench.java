@@ -0,0 +1,123 @@
+import app.audio.OrdinalCounts;
+import app.audio.Song;
+import fileio.input.SongInput;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * Compares the per-listener listen counters kept as HashMap<Song, Integer> against the
+ * OrdinalCounts that replaced them: 100k listeners, each with 200 listens over 40 of 5k songs,
+ * counted in total, premium and ads counters like Listener does. Prints the retained heap, the
+ * bytes allocated and the time taken. Run it once per mode against the compiled sources, e.g.
+ * with them in out/ and jackson on the classpath:
+ *   javac -cp out -d out bench/ListenBench.java
+ *   java -cp out:jackson/* ListenBench map
+ *   java -cp out:jackson/* ListenBench ordinal
+ */
+public final class ListenBench {
+    private static final int USERS = 100_000;
+    private static final int SONGS = 5_000;
+    private static final int DISTINCT = 40;
+    private static final int LISTENS = 200;
+    private static final int DURATION = 100;
+    private static final int RELEASE_YEAR = 2000;
+    private static final int GC_ROUNDS = 4;
+    private static final int MEGABYTE_SHIFT = 20;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private static Object retained;
+
+    private ListenBench() {
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < GC_ROUNDS; ++i) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getCurrentThreadAllocatedBytes();
+    }
+
+    private static Song[] songs() {
+        Song[] songs = new Song[SONGS];
+        for (int i = 0; i < SONGS; ++i) {
+            SongInput input = new SongInput();
+            input.setName("song" + i);
+            input.setDuration(DURATION);
+            input.setArtist("artist");
+            input.setAlbum("album");
+            input.setGenre("genre");
+            input.setLyrics("");
+            input.setReleaseYear(RELEASE_YEAR);
+            input.setTags(new ArrayList<>());
+            songs[i] = new Song(input);
+            songs[i].setOrdinal(i);
+        }
+        return songs;
+    }
+
+    private static void count(final HashMap<Song, Integer> counts, final Song song) {
+        counts.merge(song, 1, Integer::sum);
+    }
+
+    private static Object mapListener(final Song[] songs, final int[] picks,
+                                      final Random random) {
+        HashMap<Song, Integer> listens = new HashMap<>();
+        HashMap<Song, Integer> premium = new HashMap<>();
+        HashMap<Song, Integer> ads = new HashMap<>();
+        for (int i = 0; i < LISTENS; ++i) {
+            Song song = songs[picks[random.nextInt(DISTINCT)]];
+            count(listens, song);
+            count(i % 2 == 0 ? premium : ads, song);
+        }
+        return new Object[] {listens, premium, ads};
+    }
+
+    private static Object ordinalListener(final int[] picks, final Random random) {
+        OrdinalCounts listens = new OrdinalCounts();
+        OrdinalCounts premium = new OrdinalCounts();
+        OrdinalCounts ads = new OrdinalCounts();
+        for (int i = 0; i < LISTENS; ++i) {
+            int ordinal = picks[random.nextInt(DISTINCT)];
+            listens.add(ordinal, 1);
+            (i % 2 == 0 ? premium : ads).add(ordinal, 1);
+        }
+        return new Object[] {listens, premium, ads};
+    }
+
+    public static void main(final String[] args) {
+        boolean ordinal = args.length > 0 && args[0].equals("ordinal");
+        Song[] songs = songs();
+        Random random = new Random(1);
+
+        long baseHeap = usedHeap();
+        long startAllocated = allocatedBytes();
+        long start = System.nanoTime();
+        Object[] listeners = new Object[USERS];
+        for (int user = 0; user < USERS; ++user) {
+            int[] picks = new int[DISTINCT];
+            for (int i = 0; i < DISTINCT; ++i) {
+                picks[i] = random.nextInt(SONGS);
+            }
+            listeners[user] = ordinal
+                    ? ordinalListener(picks, random)
+                    : mapListener(songs, picks, random);
+        }
+        long end = System.nanoTime();
+        long allocated = allocatedBytes() - startAllocated;
+        retained = listeners;
+        long heap = usedHeap() - baseHeap;
+
+        System.out.printf("%s: retained %d MB, allocated %d MB, %d ms%n",
+                ordinal ? "OrdinalCounts" : "HashMap", heap >> MEGABYTE_SHIFT,
+                allocated >> MEGABYTE_SHIFT, (end - start) / NANOS_PER_MILLI);
+    }
+}
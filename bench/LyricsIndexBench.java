@@ -0,0 +1,82 @@
+import app.audio.LibrarySingleton;
+import app.audio.LyricsIndex;
+import app.audio.Song;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fileio.input.LibraryInput;
+import fileio.input.SongInput;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Reports the memory used by the lyrics trigram index: the number of distinct trigrams and
+ * the estimate of LyricsIndex.estimateMemoryBytes(). With a library file as argument, it
+ * indexes the songs of that library; without one, a synthetic catalog of 10k songs whose
+ * lyrics are about 310 characters drawn from a 20-word vocabulary. Run it against the
+ * compiled sources, e.g. with them in out/ and jackson on the classpath:
+ *   javac -cp out:jackson/* -d out bench/LyricsIndexBench.java
+ *   java -cp out:jackson/* LyricsIndexBench input/library/library.json
+ *   java -cp out:jackson/* LyricsIndexBench
+ */
+public final class LyricsIndexBench {
+    private static final int SONGS = 10_000;
+    private static final int LYRICS_LENGTH = 310;
+    private static final int DURATION = 100;
+    private static final int RELEASE_YEAR = 2000;
+    private static final long BYTES_PER_KILOBYTE = 1_024L;
+    private static final String[] VOCABULARY = {
+        "love", "night", "heart", "baby", "dance", "fire", "dream", "light", "rain", "road",
+        "time", "home", "sky", "blue", "gold", "wild", "soul", "river", "shadow", "summer",
+    };
+
+    private LyricsIndexBench() {
+    }
+
+    private static String lyrics(final Random random) {
+        StringBuilder lyrics = new StringBuilder();
+        while (lyrics.length() < LYRICS_LENGTH) {
+            lyrics.append(VOCABULARY[random.nextInt(VOCABULARY.length)]).append(' ');
+        }
+        return lyrics.toString();
+    }
+
+    private static LyricsIndex syntheticIndex() {
+        LyricsIndex index = new LyricsIndex();
+        Random random = new Random(1);
+        for (int i = 0; i < SONGS; ++i) {
+            SongInput input = new SongInput();
+            input.setName("song" + i);
+            input.setDuration(DURATION);
+            input.setArtist("artist");
+            input.setAlbum("album");
+            input.setGenre("genre");
+            input.setLyrics(lyrics(random));
+            input.setReleaseYear(RELEASE_YEAR);
+            input.setTags(new ArrayList<>());
+            Song song = new Song(input);
+            song.setOrdinal(i);
+            index.add(song);
+        }
+        return index;
+    }
+
+    public static void main(final String[] args) throws IOException {
+        LyricsIndex index;
+        String source;
+        if (args.length > 0) {
+            LibraryInput input = new ObjectMapper().readValue(new File(args[0]),
+                    LibraryInput.class);
+            LibrarySingleton library = LibrarySingleton.getInstance();
+            library.getInput(input);
+            index = library.getLyricsIndex();
+            source = input.getSongs().size() + " songs of " + args[0];
+        } else {
+            index = syntheticIndex();
+            source = SONGS + " synthetic songs";
+        }
+        System.out.printf("%s: %d trigrams, about %d KB%n", source, index.getGramCount(),
+                index.estimateMemoryBytes() / BYTES_PER_KILOBYTE);
+    }
+}
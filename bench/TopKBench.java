@@ -0,0 +1,70 @@
+import app.ranking.IntTopK;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares IntTopK.topCounts against the sorted().limit() stream it replaced, on the top 5 of
+ * 200k random counts. Run it against the compiled sources, e.g. with them in out/:
+ *   javac -cp out -d out bench/TopKBench.java
+ *   java -cp out TopKBench
+ */
+public final class TopKBench {
+    private static final int KEYS = 200_000;
+    private static final int MAX_COUNT = 1_000;
+    private static final int TOP = 5;
+    private static final int WARMUP = 20;
+    private static final int ROUNDS = 50;
+    private static final long NANOS_PER_MICRO = 1_000L;
+
+    private TopKBench() {
+    }
+
+    private static ArrayList<String> sortedLimit(final Map<String, Integer> counts) {
+        ArrayList<String> top = new ArrayList<>(TOP);
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(TOP)
+                .forEach(entry -> top.add(entry.getKey()));
+        return top;
+    }
+
+    private static ArrayList<String> topK(final Map<String, Integer> counts) {
+        return new ArrayList<>(
+                IntTopK.topCounts(counts, TOP, Comparator.naturalOrder()).keySet());
+    }
+
+    public static void main(final String[] args) {
+        Random random = new Random(1);
+        HashMap<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; ++i) {
+            counts.put("key" + i, random.nextInt(MAX_COUNT));
+        }
+        if (!sortedLimit(counts).equals(topK(counts))) {
+            throw new IllegalStateException("the selectors disagree");
+        }
+
+        for (int i = 0; i < WARMUP; ++i) {
+            sortedLimit(counts);
+            topK(counts);
+        }
+        long sortedNanos = 0;
+        long topKNanos = 0;
+        for (int i = 0; i < ROUNDS; ++i) {
+            long start = System.nanoTime();
+            sortedLimit(counts);
+            long middle = System.nanoTime();
+            topK(counts);
+            long end = System.nanoTime();
+            sortedNanos += middle - start;
+            topKNanos += end - middle;
+        }
+        System.out.printf("top %d of %d counts: sorted().limit() %d us, IntTopK %d us%n",
+                TOP, KEYS, sortedNanos / ROUNDS / NANOS_PER_MICRO,
+                topKNanos / ROUNDS / NANOS_PER_MICRO);
+    }
+}
@@ -37,12 +37,12 @@ public final class Album extends SongCollection {
      */
     public void delete() {
         LibrarySingleton library = LibrarySingleton.getInstance();
-        library.getAlbums().remove(this);
+        library.removeAlbum(this);
         for (Song song: songs) {
-            library.getSongs().remove(song);
+            library.removeSong(song);
         }
         for (Playlist playlist: library.getPlaylists()) {
-            playlist.getSongs().removeIf(song -> song.getAlbum().equals(name));
+            playlist.removeSongsIf(song -> song.getAlbum().equals(name));
         }
     }
     @Override
@@ -0,0 +1,59 @@
+package app.audio;
+
+import java.util.HashMap;
+
+/**
+ * Equality index from an attribute value (tag, genre, artist, album) to the bitmap
+ * of the songs having it.
+ */
+public final class BitmapIndex {
+    private static final SongBitmap EMPTY = new SongBitmap();
+
+    private final HashMap<String, SongBitmap> postings = new HashMap<>();
+
+    /**
+     * folds the value the same way String.equalsIgnoreCase compares characters, so two
+     * values get the same key exactly when they are equal ignoring case
+     * @param value a given value
+     * @return the case-insensitive key of the value
+     */
+    public static String ignoreCaseKey(final String value) {
+        char[] folded = value.toCharArray();
+        for (int i = 0; i < folded.length; ++i) {
+            folded[i] = Character.toLowerCase(Character.toUpperCase(folded[i]));
+        }
+        return new String(folded);
+    }
+
+    /**
+     * @param key the attribute value
+     * @param ordinal the ordinal of a song having it
+     */
+    public void add(final String key, final int ordinal) {
+        postings.computeIfAbsent(key, k -> new SongBitmap()).add(ordinal);
+    }
+
+    /**
+     * @param key the attribute value
+     * @param ordinal the ordinal of a song that no longer has it
+     */
+    public void remove(final String key, final int ordinal) {
+        SongBitmap bitmap = postings.get(key);
+        if (bitmap == null) {
+            return;
+        }
+        bitmap.remove(ordinal);
+        if (bitmap.cardinality() == 0) {
+            postings.remove(key);
+        }
+    }
+
+    /**
+     * @param key the attribute value
+     * @return the songs having the value, possibly an empty set
+     */
+    public OrdinalSet get(final String key) {
+        SongBitmap bitmap = postings.get(key);
+        return bitmap == null ? EMPTY : bitmap;
+    }
+}
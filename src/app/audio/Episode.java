@@ -8,6 +8,7 @@ import lombok.Setter;
 public final class Episode extends AudioFile {
     private String description;
     private String owner;
+    private int ordinal;
 
     public Episode(final EpisodeInput input, final String owner) {
         this.setName(input.getName());
@@ -8,7 +8,11 @@ import app.output.results.StatisticsResult;
 
 import app.persons.Artist;
 import app.persons.Host;
+import app.persons.UserDirectory;
 import app.player.AudioPlayer;
+import app.player.PlayerIndex;
+import app.player.SearchCache;
+import app.player.TransitionSchedule;
 import fileio.input.LibraryInput;
 import fileio.input.PodcastInput;
 import fileio.input.SongInput;
@@ -16,19 +20,49 @@ import fileio.input.UserInput;
 import lombok.Getter;
 import main.Command;
 import app.persons.Listener;
+import app.persons.RevenueRanking;
 import app.persons.User;
 
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
-import java.util.Map;
 import java.util.stream.Collectors;
 
 @Getter
 public final class LibrarySingleton {
+    private static final String AD_BREAK_NAME = "Ad Break";
+    private static final int TRENDING_WINDOW_SECONDS = 3600;
+    private static final int TRENDING_BUCKETS = 60;
     private static LibrarySingleton instance = null;
     private ArrayList<Song> songs;
+    private ArrayList<Song> songsByOrdinal = new ArrayList<>();
+    private ArrayList<Song> songRegistry = new ArrayList<>();
+    private ArrayList<Episode> episodeRegistry = new ArrayList<>();
+    private HashMap<String, ArrayList<Song>> songIndex = new HashMap<>();
+    private Song adBreakSong;
+    private PrefixIndex<Song> songPrefixIndex = new PrefixIndex<>();
+    private PrefixIndex<Album> albumPrefixIndex = new PrefixIndex<>();
+    private PrefixIndex<Playlist> playlistPrefixIndex = new PrefixIndex<>();
+    private PublicPlaylistIndex publicPlaylistIndex = new PublicPlaylistIndex();
+    private PrefixIndex<Podcast> podcastPrefixIndex = new PrefixIndex<>();
+    private LyricsIndex lyricsIndex = new LyricsIndex();
+    private BitmapIndex tagBitmaps = new BitmapIndex();
+    private BitmapIndex genreBitmaps = new BitmapIndex();
+    private BitmapIndex artistBitmaps = new BitmapIndex();
+    private BitmapIndex albumBitmaps = new BitmapIndex();
+    private YearIndex yearIndex = new YearIndex();
+    private RankChart songChart = new RankChart();
+    private TrendingChart trendingChart =
+            new TrendingChart(TRENDING_WINDOW_SECONDS, TRENDING_BUCKETS);
+    private ArrayList<Listener> listenersWithBufferedListens = new ArrayList<>();
+    private RevenueRanking revenueRanking = new RevenueRanking();
+    private HashMap<Song, Album> songAlbums = new HashMap<>();
+    private HashMap<Album, Artist> albumArtists = new HashMap<>();
+    private RankedSet<Album> albumChart = new RankedSet<>(Comparator.comparing(Album::getName));
+    private RankedSet<Artist> artistChart = new RankedSet<>();
+    private RankedSet<Playlist> playlistChart =
+            new RankedSet<>(Comparator.comparingInt(Playlist::getTimestamp));
     private ArrayList<Podcast> podcasts;
     private ArrayList<Album> albums = new ArrayList<>();
     private ArrayList<Playlist> playlists = new ArrayList<>();
@@ -36,6 +70,10 @@ public final class LibrarySingleton {
     private ArrayList<Artist> artists = new ArrayList<>();
     private ArrayList<Host> hosts = new ArrayList<>();
     private HashMap<String, AudioPlayer> audioPlayers = new HashMap<>();
+    private PlayerIndex playerIndex = new PlayerIndex();
+    private TransitionSchedule transitionSchedule = new TransitionSchedule();
+    private UserDirectory userDirectory = new UserDirectory();
+    private SearchCache searchCache = new SearchCache();
     private LibrarySingleton() { }
 
     /**
@@ -61,6 +99,38 @@ public final class LibrarySingleton {
         artists = new ArrayList<>();
         hosts = new ArrayList<>();
         audioPlayers = new HashMap<>();
+        playerIndex = new PlayerIndex();
+        transitionSchedule = new TransitionSchedule();
+        userDirectory = new UserDirectory();
+        albumPrefixIndex = new PrefixIndex<>();
+        songAlbums = new HashMap<>();
+        albumArtists = new HashMap<>();
+        albumChart = new RankedSet<>(Comparator.comparing(Album::getName));
+        artistChart = new RankedSet<>();
+        playlistChart = new RankedSet<>(Comparator.comparingInt(Playlist::getTimestamp));
+        playlistPrefixIndex = new PrefixIndex<>();
+        publicPlaylistIndex = new PublicPlaylistIndex();
+        podcastPrefixIndex = new PrefixIndex<>();
+        episodeRegistry = new ArrayList<>();
+        listenersWithBufferedListens = new ArrayList<>();
+        revenueRanking = new RevenueRanking();
+        resetSongIndexes();
+    }
+
+    private void resetSongIndexes() {
+        songsByOrdinal = new ArrayList<>();
+        songRegistry = new ArrayList<>();
+        songIndex = new HashMap<>();
+        adBreakSong = null;
+        songPrefixIndex = new PrefixIndex<>();
+        lyricsIndex = new LyricsIndex();
+        tagBitmaps = new BitmapIndex();
+        genreBitmaps = new BitmapIndex();
+        artistBitmaps = new BitmapIndex();
+        albumBitmaps = new BitmapIndex();
+        yearIndex = new YearIndex();
+        songChart = new RankChart();
+        trendingChart = new TrendingChart(TRENDING_WINDOW_SECONDS, TRENDING_BUCKETS);
     }
 
     /**
@@ -72,19 +142,20 @@ public final class LibrarySingleton {
             return;
         }
         songs = new ArrayList<>();
+        resetSongIndexes();
         for (SongInput songInput : library.getSongs()) {
-            Song song = new Song(songInput);
-            songs.add(song);
+            addSong(new Song(songInput));
         }
         podcasts = new ArrayList<>();
+        podcastPrefixIndex = new PrefixIndex<>();
         for (PodcastInput podcastInput: library.getPodcasts()) {
-            Podcast podcast = new Podcast(podcastInput);
-            podcasts.add(podcast);
+            addPodcast(new Podcast(podcastInput));
         }
         listeners = new ArrayList<>();
         for (UserInput userInput: library.getUsers()) {
             Listener listener = new Listener(userInput);
             listeners.add(listener);
+            userDirectory.add(listener, UserDirectory.Role.LISTENER);
         }
     }
 
@@ -93,12 +164,7 @@ public final class LibrarySingleton {
      * @return the User object with the desired name
      */
     public Listener findListenerByUsername(final String username) {
-        for (Listener listener: listeners) {
-            if (listener.getUsername().equals(username)) {
-                return listener;
-            }
-        }
-        return null;
+        return (Listener) userDirectory.find(username, UserDirectory.Role.LISTENER);
     }
 
     /**
@@ -106,12 +172,7 @@ public final class LibrarySingleton {
      * @return the Host object with the given name
      */
     public Host findHostByName(final String username) {
-        for (Host host: hosts) {
-            if (host.getUsername().equals(username)) {
-                return host;
-            }
-        }
-        return null;
+        return (Host) userDirectory.find(username, UserDirectory.Role.HOST);
     }
 
     /**
@@ -119,12 +180,7 @@ public final class LibrarySingleton {
      * @return the Artist object with the given name
      */
     public Artist findArtistByName(final String username) {
-        for (Artist artist: artists) {
-            if (artist.getUsername().equals(username)) {
-                return artist;
-            }
-        }
-        return null;
+        return (Artist) userDirectory.find(username, UserDirectory.Role.ARTIST);
     }
 
     /**
@@ -132,28 +188,253 @@ public final class LibrarySingleton {
      * @return the User object with the given username
      */
     public User findUserByUsername(final String username) {
-        User user = findListenerByUsername(username);
-        if (user != null) {
-            return user;
-        }
-        user = findArtistByName(username);
-        if (user != null) {
-            return user;
-        }
-        user = findHostByName(username);
-        return user;
+        return userDirectory.find(username);
     }
     /**
      * @param name the sought song name
      * @return the Song object with the desired name
      */
     public Song findSongByName(final String name) {
-        for (Song song: songs) {
-            if (song.getName().equals(name)) {
-                return song;
+        ArrayList<Song> namesakes = songIndex.get(name);
+        if (namesakes == null) {
+            return null;
+        }
+        return namesakes.get(0);
+    }
+
+    /**
+     * adds the song at the end of the catalog and indexes it.
+     * Every song gets the next ordinal, so ordinals follow catalog order.
+     * @param song the given song
+     */
+    public void addSong(final Song song) {
+        searchCache.invalidate("song");
+        song.setOrdinal(songsByOrdinal.size());
+        songsByOrdinal.add(song);
+        songRegistry.add(song);
+        songs.add(song);
+        songIndex.computeIfAbsent(song.getName(), name -> new ArrayList<>()).add(song);
+        songPrefixIndex.add(song.getFoldedName(), song);
+        lyricsIndex.add(song);
+        int ordinal = song.getOrdinal();
+        for (String tag: song.getTags()) {
+            tagBitmaps.add(tag, ordinal);
+        }
+        if (song.getGenre() != null) {
+            genreBitmaps.add(BitmapIndex.ignoreCaseKey(song.getGenre()), ordinal);
+        }
+        artistBitmaps.add(song.getArtist(), ordinal);
+        albumBitmaps.add(song.getAlbum(), ordinal);
+        yearIndex.add(song.getReleaseYear(), ordinal);
+        songChart.add(ordinal, song.getLikes());
+        if (adBreakSong == null && song.getName().equals(AD_BREAK_NAME)) {
+            adBreakSong = song;
+        }
+    }
+
+    /**
+     * removes the song from the catalog and from the name index
+     * @param song the given song
+     */
+    public void removeSong(final Song song) {
+        flushListens();
+        if (!songs.remove(song)) {
+            return;
+        }
+        searchCache.invalidate("song");
+        ArrayList<Song> namesakes = songIndex.get(song.getName());
+        namesakes.remove(song);
+        if (namesakes.isEmpty()) {
+            songIndex.remove(song.getName());
+        }
+        songPrefixIndex.remove(song.getFoldedName(), song);
+        lyricsIndex.remove(song);
+        int ordinal = song.getOrdinal();
+        for (String tag: song.getTags()) {
+            tagBitmaps.remove(tag, ordinal);
+        }
+        if (song.getGenre() != null) {
+            genreBitmaps.remove(BitmapIndex.ignoreCaseKey(song.getGenre()), ordinal);
+        }
+        artistBitmaps.remove(song.getArtist(), ordinal);
+        albumBitmaps.remove(song.getAlbum(), ordinal);
+        yearIndex.remove(song.getReleaseYear(), ordinal);
+        songChart.remove(ordinal, song.getLikes());
+        songsByOrdinal.set(song.getOrdinal(), null);
+        if (song == adBreakSong) {
+            adBreakSong = findSongByName(AD_BREAK_NAME);
+        }
+    }
+
+    /**
+     * adds the album to the library and indexes it by name.
+     * Albums are searched grouped by artist, so they are indexed under their owner.
+     * Albums added by an artist that was already deleted are never searchable.
+     * @param album the given album
+     */
+    public void addAlbum(final Album album) {
+        searchCache.invalidate("album");
+        albums.add(album);
+        int likes = 0;
+        for (Song song: album.getSongs()) {
+            songAlbums.put(song, album);
+            likes += song.getLikes();
+        }
+        albumChart.add(album, likes);
+        Artist owner = findArtistByName(album.getOwner());
+        if (owner != null && owner.getAlbums().contains(album)) {
+            albumPrefixIndex.add(album.getName(), album, userDirectory.ordinalOf(owner.getName()));
+            albumArtists.put(album, owner);
+            artistChart.change(owner, likes);
+        }
+    }
+
+    /**
+     * @param album the album removed from the library
+     */
+    public void removeAlbum(final Album album) {
+        searchCache.invalidate("album");
+        albums.remove(album);
+        albumPrefixIndex.remove(album.getName(), album);
+        for (Song song: album.getSongs()) {
+            songAlbums.remove(song, album);
+        }
+        Artist owner = albumArtists.remove(album);
+        if (owner != null) {
+            artistChart.change(owner, -albumChart.countOf(album));
+        }
+        albumChart.remove(album);
+    }
+
+    /**
+     * @param podcast the podcast added to the library
+     */
+    public void addPodcast(final Podcast podcast) {
+        searchCache.invalidate("podcast");
+        for (Episode episode: podcast.getEpisodes()) {
+            episode.setOrdinal(episodeRegistry.size());
+            episodeRegistry.add(episode);
+        }
+        podcasts.add(podcast);
+        podcastPrefixIndex.add(podcast.getName(), podcast);
+    }
+
+    /**
+     * @param ordinal the ordinal of a song, even one removed since
+     * @return the song
+     */
+    public Song songOf(final int ordinal) {
+        return songRegistry.get(ordinal);
+    }
+
+    /**
+     * @param ordinal the ordinal of an episode, even one removed since
+     * @return the episode
+     */
+    public Episode episodeOf(final int ordinal) {
+        return episodeRegistry.get(ordinal);
+    }
+
+    /**
+     * @param podcast the podcast removed from the library
+     */
+    public void removePodcast(final Podcast podcast) {
+        searchCache.invalidate("podcast");
+        podcasts.remove(podcast);
+        podcastPrefixIndex.remove(podcast.getName(), podcast);
+    }
+
+    /**
+     * adds the playlist to the library and indexes it by name.
+     * Playlists are searched grouped by owner, so they are indexed under their owner.
+     * @param playlist the given playlist
+     */
+    public void addPlaylist(final Playlist playlist) {
+        searchCache.invalidate("playlist");
+        int ownerOrdinal = userDirectory.ordinalOf(playlist.getOwner());
+        playlists.add(playlist);
+        playlistPrefixIndex.add(playlist.getName(), playlist, ownerOrdinal);
+        publicPlaylistIndex.add(playlist, ownerOrdinal);
+        playlistChart.add(playlist, playlist.getFollowers().size());
+    }
+
+    /**
+     * @param playlist the playlist removed from the library
+     */
+    public void removePlaylist(final Playlist playlist) {
+        searchCache.invalidate("playlist");
+        playlists.remove(playlist);
+        playlistPrefixIndex.remove(playlist.getName(), playlist);
+        publicPlaylistIndex.remove(playlist);
+        playlistChart.remove(playlist);
+    }
+
+    private boolean inCatalog(final Song song) {
+        int ordinal = song.getOrdinal();
+        return ordinal < songsByOrdinal.size() && songsByOrdinal.get(ordinal) == song;
+    }
+
+    /**
+     * @param listener a listener that is not yet queued for the next flush
+     */
+    public void listensBuffered(final Listener listener) {
+        listenersWithBufferedListens.add(listener);
+    }
+
+    /**
+     * credits the buffered listens of every listener. Must be called before reading any
+     * listen aggregate and before changing what the listens are credited to
+     */
+    public void flushListens() {
+        for (Listener listener: listenersWithBufferedListens) {
+            listener.flushListens();
+            listener.setListensQueued(false);
+        }
+        listenersWithBufferedListens.clear();
+    }
+
+    /**
+     * moves the trending chart forward; the buffered listens belong to the current bucket,
+     * so they are credited first
+     * @param timestamp the current simulated time
+     */
+    public void advanceTrendingChart(final int timestamp) {
+        if (trendingChart.isBehind(timestamp)) {
+            flushListens();
+        }
+        trendingChart.advanceTo(timestamp);
+    }
+
+    /**
+     * feeds the trending chart, should be called for every listen event
+     * @param song the song listened to
+     * @param listens the number of listens, negative when listens are taken back
+     */
+    public void songListened(final Song song, final int listens) {
+        if (inCatalog(song)) {
+            trendingChart.record(song.getOrdinal(), listens);
+        }
+    }
+
+    /**
+     * keeps the song, album and artist charts up to date,
+     * should be called after every like or unlike
+     * @param song the given song
+     * @param oldLikes the number of likes the song had before
+     */
+    public void songLikesChanged(final Song song, final int oldLikes) {
+        if (inCatalog(song)) {
+            songChart.update(song.getOrdinal(), oldLikes, song.getLikes());
+        }
+        Album album = songAlbums.get(song);
+        if (album != null) {
+            int delta = song.getLikes() - oldLikes;
+            albumChart.change(album, delta);
+            Artist owner = albumArtists.get(album);
+            if (owner != null) {
+                artistChart.change(owner, delta);
             }
         }
-        return null;
     }
 
     /**
@@ -165,15 +446,39 @@ public final class LibrarySingleton {
         GetTop5SongsResult result = new GetTop5SongsResult();
         result.setTimestamp(command.getTimestamp());
 
-        ArrayList<String> top5Songs = songs.stream()
-                .sorted(Comparator.comparingInt(Song::getLikes).reversed()).limit(topSize)
-                .map(Song::getName)
-                .collect(Collectors.toCollection(ArrayList::new));
+        ArrayList<String> top5Songs = new ArrayList<>();
+        for (int ordinal: songChart.top(topSize)) {
+            top5Songs.add(songsByOrdinal.get(ordinal).getName());
+        }
 
         result.setResult(top5Songs);
         return result;
     }
 
+    /**
+     * the songs listened to the most during the trending window of simulated time
+     * @param command the given command
+     * @return the result formatted for output
+     */
+    public GetTop5SongsResult getTrendingSongs(final Command command) {
+        final int topSize = 5;
+        GetTop5SongsResult result = new GetTop5SongsResult();
+        result.setCommand(command.getCommand());
+        result.setTimestamp(command.getTimestamp());
+
+        advanceTrendingChart(command.getTimestamp());
+        flushListens();
+        ArrayList<String> trendingSongs = new ArrayList<>();
+        int[] trending = trendingChart.top(topSize,
+                ordinal -> songsByOrdinal.get(ordinal) != null);
+        for (int ordinal: trending) {
+            trendingSongs.add(songsByOrdinal.get(ordinal).getName());
+        }
+
+        result.setResult(trendingSongs);
+        return result;
+    }
+
     /**
      * @param command the given command
      * @return the result formatted for output
@@ -183,15 +488,7 @@ public final class LibrarySingleton {
         GetTop5PlaylistsResult result = new GetTop5PlaylistsResult();
         result.setTimestamp(command.getTimestamp());
 
-        ArrayList<String> top5Playlists = playlists.stream()
-                .sorted((playlist1, playlist2) -> {
-                    if (playlist1.getFollowers().size() == playlist2.getFollowers().size()) {
-                        return Integer.compare(playlist1.getTimestamp(), playlist2.getTimestamp());
-                    }
-                    return Integer.compare(playlist2.getFollowers().size(),
-                            playlist1.getFollowers().size());
-                })
-                .limit(topSize)
+        ArrayList<String> top5Playlists = playlistChart.top(topSize).stream()
                 .map(Playlist::getName)
                 .collect(Collectors.toCollection(ArrayList::new));
 
@@ -205,11 +502,7 @@ public final class LibrarySingleton {
      * @return the total number of likes
      */
     public int computeAlbumLikeCount(final Album album) {
-        int result = 0;
-        for (Song song: album.getSongs()) {
-            result += song.getLikes();
-        }
-        return result;
+        return albumChart.countOf(album);
     }
 
     /**
@@ -219,16 +512,7 @@ public final class LibrarySingleton {
     public StatisticsResult getTop5Albums(final Command command) {
         final int topSize = 5;
         StatisticsResult result = new StatisticsResult(command);
-        ArrayList<String> top5Albums = albums.stream()
-                .sorted((album1, album2) -> {
-                    int album1LikeCount = computeAlbumLikeCount(album1);
-                    int album2LikeCount = computeAlbumLikeCount(album2);
-                    if (album1LikeCount == album2LikeCount) {
-                        return album1.getName().compareTo(album2.getName());
-                    }
-                    return Integer.compare(album2LikeCount, album1LikeCount);
-                })
-                .limit(topSize)
+        ArrayList<String> top5Albums = albumChart.top(topSize).stream()
                 .map(Album::getName)
                 .collect(Collectors.toCollection(ArrayList::new));
 
@@ -242,11 +526,7 @@ public final class LibrarySingleton {
      * @return cumulative number of likes
      */
     public int computeArtistLikeCount(final Artist artist) {
-        int result = 0;
-        for (Album album: artist.getAlbums()) {
-            result += computeAlbumLikeCount(album);
-        }
-        return result;
+        return artistChart.countOf(artist);
     }
 
     /**
@@ -257,13 +537,7 @@ public final class LibrarySingleton {
         final int topSize = 5;
         StatisticsResult result = new StatisticsResult(command);
 
-        ArrayList<String> top5Artists = artists.stream()
-                .sorted((artist1, artist2) -> {
-                    int artist1LikeCount = computeArtistLikeCount(artist1);
-                    int artist2LikeCount = computeArtistLikeCount(artist2);
-                    return Integer.compare(artist2LikeCount, artist1LikeCount);
-                })
-                .limit(topSize)
+        ArrayList<String> top5Artists = artistChart.top(topSize).stream()
                 .map(Artist::getName)
                 .collect(Collectors.toCollection(ArrayList::new));
 
@@ -320,22 +594,7 @@ public final class LibrarySingleton {
      * @return true if it is taken, false otherwise
      */
     public boolean usernameAlreadyExists(final String username) {
-        for (Listener listener: listeners) {
-            if (listener.getUsername().equals(username)) {
-                return true;
-            }
-        }
-        for (Artist artist: artists) {
-            if (artist.getUsername().equals(username)) {
-                return true;
-            }
-        }
-        for (Host host: hosts) {
-            if (host.getUsername().equals(username)) {
-                return true;
-            }
-        }
-        return false;
+        return userDirectory.contains(username);
     }
 
     /**
@@ -344,6 +603,7 @@ public final class LibrarySingleton {
      * @return the result of the command formatted for output
      */
     public GeneralResult addUser(final Command command) {
+        flushListens();
         GeneralResult result = new GeneralResult
                 .Builder(command.getCommand(), command.getTimestamp())
                 .username(command.getUsername())
@@ -358,16 +618,23 @@ public final class LibrarySingleton {
             case "user" -> {
                 Listener listener = new Listener(command);
                 listeners.add(listener);
+                userDirectory.add(listener, UserDirectory.Role.LISTENER);
                 player.setUser(listener);
             }
             case "artist" -> {
                 Artist artist = new Artist(command);
                 artists.add(artist);
+                artistChart.add(artist, 0);
+                revenueRanking.add(artist);
+                searchCache.invalidate("artist");
+                userDirectory.add(artist, UserDirectory.Role.ARTIST);
                 player.setUser(artist);
             }
             case "host" -> {
                 Host host = new Host(command);
                 hosts.add(host);
+                searchCache.invalidate("host");
+                userDirectory.add(host, UserDirectory.Role.HOST);
                 player.setUser(host);
             }
             default -> System.err.println("Invalid user type.");
@@ -392,40 +659,18 @@ public final class LibrarySingleton {
             if (player == null) {
                 continue;
             }
-            player.setCurrentFile(player.updateStatus(command));
+            player.updateIfDue(command);
             listener.splitMoney();
         }
-        artists.forEach(artist -> artist.setStreamsRevenue(artist.getSongProfits().values().stream()
-                .mapToDouble(Double::doubleValue).sum()));
-        ArrayList<Artist> filteredArtists = artists.stream()
-                .filter(artist -> artist.getPlays() > 0 || artist.getMerchRevenue() > 0)
-                .sorted(
-                        Comparator
-                                .<Artist>comparingDouble(artist ->
-                                        artist.getMerchRevenue() + artist.getStreamsRevenue())
-                                .reversed()
-                                .thenComparing(Artist::getName)
-                )
-                .collect(Collectors.toCollection(ArrayList::new));
+        flushListens();
         int rank = 0;
 
-        // unfortunately java doesn't support 💯 as a variable name
-        final double hundredEmoji = 100.0;
-        for (Artist artist: filteredArtists) {
+        for (Artist artist: revenueRanking.artists()) {
             LinkedHashMap<String, Object> stats = new LinkedHashMap<>();
-            stats.put("songRevenue",
-                    Math.round(artist.getStreamsRevenue() * hundredEmoji) / hundredEmoji);
+            stats.put("songRevenue", artist.getStreamsLedger().roundedTotal());
             stats.put("merchRevenue", artist.getMerchRevenue());
             stats.put("ranking", ++rank);
-            stats.put("mostProfitableSong", artist.getSongProfits().entrySet().stream()
-                    .filter(entry -> entry.getValue() != 0.0)
-                    .max((entry1, entry2) -> {
-                        int valueComparison = entry1.getValue().compareTo(entry2.getValue());
-                        return valueComparison != 0 ? valueComparison
-                                : entry2.getKey().compareTo(entry1.getKey());
-                    })
-                    .map(Map.Entry::getKey)
-                    .orElse("N/A"));
+            stats.put("mostProfitableSong", artist.getStreamsLedger().mostProfitableSong());
             result.getResult().put(artist.getName(), stats);
         }
         return result;
@@ -0,0 +1,123 @@
+package app.audio;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+
+/**
+ * Trigram index over the lowercased lyrics of every song. It only narrows down the
+ * candidates of a lyrics search, the exact substring check is still done by SongFilter.
+ */
+public final class LyricsIndex {
+    private static final int GRAM_SIZE = 3;
+    private static final int CHAR_BITS = 16;
+    private static final int ENTRY_OVERHEAD_BYTES = 64;
+
+    private final HashMap<Long, OrdinalList> postings = new HashMap<>();
+
+    private static long gramAt(final String text, final int start) {
+        return ((long) text.charAt(start) << (2 * CHAR_BITS))
+                | ((long) text.charAt(start + 1) << CHAR_BITS)
+                | text.charAt(start + 2);
+    }
+
+    private static long[] distinctGrams(final String text) {
+        if (text.length() < GRAM_SIZE) {
+            return new long[0];
+        }
+        long[] grams = new long[text.length() - GRAM_SIZE + 1];
+        for (int i = 0; i < grams.length; ++i) {
+            grams[i] = gramAt(text, i);
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < grams.length; ++i) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    /**
+     * NOTE: songs should be added in increasing ordinal order
+     * @param song the song added to the catalog
+     */
+    public void add(final Song song) {
+        for (long gram: distinctGrams(song.getFoldedLyrics())) {
+            postings.computeIfAbsent(gram, key -> new OrdinalList()).append(song.getOrdinal());
+        }
+    }
+
+    /**
+     * @param song the song removed from the catalog
+     */
+    public void remove(final Song song) {
+        for (long gram: distinctGrams(song.getFoldedLyrics())) {
+            OrdinalList posting = postings.get(gram);
+            if (posting == null) {
+                continue;
+            }
+            posting.remove(song.getOrdinal());
+            if (posting.cardinality() == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    /**
+     * @param lyrics the lyrics filter, already lowercased
+     * @return the songs containing every trigram of the filter,
+     * or null if the filter is too short to narrow the search
+     */
+    public OrdinalList candidates(final String lyrics) {
+        long[] grams = distinctGrams(lyrics);
+        if (grams.length == 0) {
+            return null;
+        }
+        ArrayList<OrdinalList> lists = new ArrayList<>(grams.length);
+        for (long gram: grams) {
+            OrdinalList posting = postings.get(gram);
+            if (posting == null) {
+                return new OrdinalList();
+            }
+            lists.add(posting);
+        }
+        lists.sort(Comparator.comparingInt(OrdinalList::cardinality));
+
+        int[] result = lists.get(0).toArray();
+        int size = result.length;
+        for (int i = 1; i < lists.size() && size > 0; ++i) {
+            OrdinalList posting = lists.get(i);
+            int kept = 0;
+            for (int j = 0; j < size; ++j) {
+                if (posting.contains(result[j])) {
+                    result[kept++] = result[j];
+                }
+            }
+            size = kept;
+        }
+        return new OrdinalList(Arrays.copyOf(result, size));
+    }
+
+    /**
+     * @return the number of distinct trigrams in the index
+     */
+    public int getGramCount() {
+        return postings.size();
+    }
+
+    /**
+     * rough estimate of the heap used by the index: the posting arrays plus a fixed
+     * overhead for every hash map entry, boxed key and posting object
+     * @return the estimated size in bytes
+     */
+    public long estimateMemoryBytes() {
+        long bytes = 0;
+        for (OrdinalList posting: postings.values()) {
+            bytes += ENTRY_OVERHEAD_BYTES + (long) Integer.BYTES * posting.capacity();
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,113 @@
+package app.audio;
+
+import java.util.Arrays;
+
+/**
+ * Counts keyed by ordinal, kept in primitive arrays: adding to a count neither boxes nor
+ * allocates. The counts are stored in the order their ordinals were first seen and an
+ * open-addressing table maps every ordinal to its position. An ordinal stays counted once
+ * seen, even if its count goes back to zero, just like a map entry would.
+ */
+public final class OrdinalCounts {
+    private static final int INITIAL_CAPACITY = 8;
+    private static final int HASH_MULTIPLIER = 0x9E3779B9;
+    private static final int HASH_SHIFT = 16;
+
+    private static final int LOAD_NUMERATOR = 3;
+    private static final int LOAD_DENOMINATOR = 4;
+
+    private int[] ordinals = new int[INITIAL_CAPACITY];
+    private int[] counts = new int[INITIAL_CAPACITY];
+    private int size = 0;
+    /**
+     * the position of each ordinal plus one, 0 marking a free slot; at most three quarters full
+     */
+    private int[] slots = new int[INITIAL_CAPACITY * 2];
+
+    private int slotOf(final int ordinal) {
+        int mask = slots.length - 1;
+        int hash = ordinal * HASH_MULTIPLIER;
+        int slot = (hash ^ (hash >>> HASH_SHIFT)) & mask;
+        while (slots[slot] != 0 && ordinals[slots[slot] - 1] != ordinal) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        for (int position = 0; position < size; ++position) {
+            slots[slotOf(ordinals[position])] = position + 1;
+        }
+    }
+
+    /**
+     * @param ordinal the given ordinal
+     * @param delta the value added to its count
+     */
+    public void add(final int ordinal, final int delta) {
+        int slot = slotOf(ordinal);
+        if (slots[slot] != 0) {
+            counts[slots[slot] - 1] += delta;
+            return;
+        }
+        if (size == ordinals.length) {
+            ordinals = Arrays.copyOf(ordinals, size + (size >> 1));
+            counts = Arrays.copyOf(counts, ordinals.length);
+        }
+        if ((size + 1) * LOAD_DENOMINATOR > slots.length * LOAD_NUMERATOR) {
+            rehash();
+            slot = slotOf(ordinal);
+        }
+        ordinals[size] = ordinal;
+        counts[size] = delta;
+        slots[slot] = ++size;
+    }
+
+    /**
+     * @param ordinal the given ordinal
+     * @return its count, 0 if it was never counted
+     */
+    public int get(final int ordinal) {
+        int position = slots[slotOf(ordinal)];
+        return position == 0 ? 0 : counts[position - 1];
+    }
+
+    /**
+     * @return the number of ordinals counted
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if no ordinal was counted
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param position a position, smaller than size()
+     * @return the ordinal first counted at that position
+     */
+    public int ordinalAt(final int position) {
+        return ordinals[position];
+    }
+
+    /**
+     * @param position a position, smaller than size()
+     * @return the count of the ordinal at that position
+     */
+    public int countAt(final int position) {
+        return counts[position];
+    }
+
+    /**
+     * forgets every ordinal
+     */
+    public void clear() {
+        Arrays.fill(slots, 0);
+        size = 0;
+    }
+}
@@ -0,0 +1,92 @@
+package app.audio;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Growable, ascending list of song ordinals. Ordinals are handed out in catalog order,
+ * so appending keeps the list sorted.
+ */
+public final class OrdinalList implements OrdinalSet {
+    private static final int INITIAL_CAPACITY = 4;
+
+    private int[] ordinals = new int[INITIAL_CAPACITY];
+    private int size = 0;
+
+    public OrdinalList() { }
+
+    /**
+     * @param sortedOrdinals ascending ordinals, the list takes ownership of the array
+     */
+    public OrdinalList(final int[] sortedOrdinals) {
+        ordinals = sortedOrdinals;
+        size = sortedOrdinals.length;
+    }
+
+    /**
+     * @param ordinal an ordinal greater than every ordinal already in the list
+     */
+    public void append(final int ordinal) {
+        if (size == ordinals.length) {
+            ordinals = Arrays.copyOf(ordinals, Math.max(INITIAL_CAPACITY, size * 2));
+        }
+        ordinals[size++] = ordinal;
+    }
+
+    /**
+     * @param ordinal the ordinal to remove, if present
+     */
+    public void remove(final int ordinal) {
+        int position = Arrays.binarySearch(ordinals, 0, size, ordinal);
+        if (position < 0) {
+            return;
+        }
+        System.arraycopy(ordinals, position + 1, ordinals, position, size - position - 1);
+        size--;
+    }
+
+    @Override
+    public boolean contains(final int ordinal) {
+        return Arrays.binarySearch(ordinals, 0, size, ordinal) >= 0;
+    }
+
+    @Override
+    public int cardinality() {
+        return size;
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int position = 0;
+
+            @Override
+            public boolean hasNext() {
+                return position < size;
+            }
+
+            @Override
+            public int nextInt() {
+                if (position >= size) {
+                    throw new NoSuchElementException();
+                }
+                return ordinals[position++];
+            }
+        };
+    }
+
+    /**
+     * @return the number of ints allocated for the list
+     */
+    public int capacity() {
+        return ordinals.length;
+    }
+
+    /**
+     * @return a sorted copy of the ordinals
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(ordinals, size);
+    }
+}
@@ -0,0 +1,24 @@
+package app.audio;
+
+import java.util.PrimitiveIterator;
+
+/**
+ * A set of song ordinals, iterated in ascending (catalog) order.
+ */
+public interface OrdinalSet {
+    /**
+     * @return the number of ordinals in the set
+     */
+    int cardinality();
+
+    /**
+     * @param ordinal a given ordinal
+     * @return true if the ordinal is in the set
+     */
+    boolean contains(int ordinal);
+
+    /**
+     * @return an iterator over the ordinals, in ascending order
+     */
+    PrimitiveIterator.OfInt iterator();
+}
@@ -9,10 +9,11 @@ import app.player.Filter;
 import app.persons.Listener;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 
 @Getter @Setter
 public final class Playlist extends SongCollection {
-    private ArrayList<Listener> followers;
+    private LinkedHashSet<Listener> followers;
     private String visibility;
     private final int timestamp;
 
@@ -28,13 +29,13 @@ public final class Playlist extends SongCollection {
         owner = command.getUsername();
         timestamp = command.getTimestamp();
         visibility = "public";
-        followers = new ArrayList<>();
+        followers = new LinkedHashSet<>();
         LibrarySingleton library = LibrarySingleton.getInstance();
         Listener listener = (Listener) library.findListenerByUsername(command.getUsername());
         if (listener != null && listener.getPlaylists() != null) {
             listener.getPlaylists().add(this);
         }
-        library.getPlaylists().add(this);
+        library.addPlaylist(this);
     }
 
     /**
@@ -12,12 +12,15 @@ import app.player.Status;
 import app.persons.Listener;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 
 @Getter @Setter
 public final class Podcast implements AudioItem {
     private String name;
     private String owner;
     private ArrayList<Episode> episodes;
+    private long[] offsets;
+    private HashMap<String, ArrayList<Integer>> episodesByName;
 
     public Podcast(final PodcastInput input) {
         name = input.getName();
@@ -27,6 +30,7 @@ public final class Podcast implements AudioItem {
             Episode episode = new Episode(episodeInput, owner);
             episodes.add(episode);
         }
+        indexEpisodes();
     }
 
     public Podcast(final ArrayList<EpisodeInput> episodes, final String name, final String owner) {
@@ -37,6 +41,39 @@ public final class Podcast implements AudioItem {
             Episode episode = new Episode(episodeInput, owner);
             this.episodes.add(episode);
         }
+        indexEpisodes();
+    }
+
+    /**
+     * precomputes the moment every episode starts at and the episodes having each name
+     */
+    private void indexEpisodes() {
+        offsets = new long[episodes.size() + 1];
+        episodesByName = new HashMap<>();
+        for (int i = 0; i < episodes.size(); ++i) {
+            offsets[i + 1] = offsets[i] + episodes.get(i).getDuration();
+            episodesByName.computeIfAbsent(episodes.get(i).getName(), key -> new ArrayList<>())
+                    .add(i);
+        }
+    }
+
+    /**
+     * @param time a moment, measured from the start of the podcast
+     * @return the index of the episode playing at the given moment, found by binary search,
+     * or the number of episodes if the podcast has ended
+     */
+    private int episodeAt(final long time) {
+        int low = 1;
+        int high = offsets.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (offsets[middle] > time) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low - 1;
     }
 
     /**
@@ -45,7 +82,7 @@ public final class Podcast implements AudioItem {
      */
     public void delete() {
         LibrarySingleton library = LibrarySingleton.getInstance();
-        library.getPodcasts().remove(this);
+        library.removePodcast(this);
     }
 
     /**
@@ -79,24 +116,26 @@ public final class Podcast implements AudioItem {
 
         int listenedBeforeTime = listener.getPodcastListenTime().get(this);
         listener.getPodcastListenTime().put(this, time);
-        for (Episode episode: getEpisodes()) {
-            listenedBeforeTime -= episode.getDuration();
+        int current = episodeAt(time);
+        int played = Math.min(current + 1, episodes.size());
 
-            // don't count an episode twice if the listener just paused it
-            if (status.getName().equals(episode.getName())) {
-                listener.addToEpisodeListens(episode, -1);
+        // don't count an episode twice if the listener just paused it
+        for (int index: episodesByName.getOrDefault(status.getName(), new ArrayList<>())) {
+            if (index < played) {
+                listener.addToEpisodeListens(episodes.get(index), -1);
             }
+        }
 
-            if (listenedBeforeTime < 0) {
-                listener.addToEpisodeListens(episode, 1);
-            }
-            if (time >= episode.getDuration()) {
-                time -= episode.getDuration();
-            } else {
-                status.setName(episode.getName());
-                status.setRemainedTime(episode.getDuration() - time);
-                return episode;
-            }
+        int firstUnfinished = episodeAt(listenedBeforeTime);
+        if (firstUnfinished < played) {
+            listener.addToEpisodeListens(this, firstUnfinished, played);
+        }
+        if (current < episodes.size()) {
+            Episode episode = episodes.get(current);
+            int elapsedTime = (int) (time - offsets[current]);
+            status.setName(episode.getName());
+            status.setRemainedTime(episode.getDuration() - elapsedTime);
+            return episode;
         }
         if (time >= 0) {
             AudioItem.setNullStatus(player);
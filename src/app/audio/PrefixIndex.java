@@ -0,0 +1,134 @@
+package app.audio;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Sorted name index answering "starts with" queries. Matches are returned grouped by the
+ * group they were added with and, inside a group, in insertion order, which is the order
+ * the library catalogs are searched in.
+ * @param <T> the type of the indexed items
+ */
+public final class PrefixIndex<T> {
+    private static final class Entry<T> implements Comparable<Entry<T>> {
+        private final T item;
+        private final int group;
+        private final long sequence;
+
+        private Entry(final T item, final int group, final long sequence) {
+            this.item = item;
+            this.group = group;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(final Entry<T> other) {
+            if (group != other.group) {
+                return Integer.compare(group, other.group);
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * the next entry of one key, while merging the keys sharing a prefix
+     */
+    private static final class Head<T> implements Comparable<Head<T>> {
+        private final Iterator<Entry<T>> source;
+        private Entry<T> entry;
+
+        private Head(final Iterator<Entry<T>> source) {
+            this.source = source;
+            this.entry = source.next();
+        }
+
+        @Override
+        public int compareTo(final Head<T> other) {
+            return entry.compareTo(other.entry);
+        }
+    }
+
+    private final TreeMap<String, ArrayList<Entry<T>>> entries = new TreeMap<>();
+    private long nextSequence = 0;
+
+    /**
+     * @param key the name the item is indexed by
+     * @param item the given item
+     */
+    public void add(final String key, final T item) {
+        add(key, item, 0);
+    }
+
+    /**
+     * NOTE: the entries of a key are kept sorted, so that matches can be merged lazily
+     * @param key the name the item is indexed by
+     * @param item the given item
+     * @param group the group of the item, lower groups are returned first
+     */
+    public void add(final String key, final T item, final int group) {
+        ArrayList<Entry<T>> namesakes = entries.computeIfAbsent(key, k -> new ArrayList<>());
+        int position = namesakes.size();
+        while (position > 0 && namesakes.get(position - 1).group > group) {
+            position--;
+        }
+        namesakes.add(position, new Entry<>(item, group, nextSequence++));
+    }
+
+    /**
+     * @param key the name the item was indexed by
+     * @param item the given item
+     */
+    public void remove(final String key, final T item) {
+        ArrayList<Entry<T>> namesakes = entries.get(key);
+        if (namesakes == null) {
+            return;
+        }
+        namesakes.removeIf(entry -> entry.item == item);
+        if (namesakes.isEmpty()) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * The items are merged from the live index while they are iterated, nothing is
+     * copied, so the index must not change during the iteration.
+     * @param prefix the given prefix
+     * @return all items whose key starts with the prefix, in catalog order
+     */
+    public Iterable<T> matches(final String prefix) {
+        return () -> {
+            PriorityQueue<Head<T>> heads = new PriorityQueue<>();
+            for (Map.Entry<String, ArrayList<Entry<T>>> namesakes
+                    : entries.tailMap(prefix, true).entrySet()) {
+                if (!namesakes.getKey().startsWith(prefix)) {
+                    break;
+                }
+                heads.add(new Head<>(namesakes.getValue().iterator()));
+            }
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return !heads.isEmpty();
+                }
+
+                @Override
+                public T next() {
+                    Head<T> head = heads.poll();
+                    if (head == null) {
+                        throw new NoSuchElementException();
+                    }
+                    T item = head.entry.item;
+                    if (head.source.hasNext()) {
+                        head.entry = head.source.next();
+                        heads.add(head);
+                    }
+                    return item;
+                }
+            };
+        };
+    }
+}
@@ -0,0 +1,76 @@
+package app.audio;
+
+import java.util.HashMap;
+import java.util.TreeMap;
+
+/**
+ * The public playlists of the platform, grouped by owner and, for every owner, in
+ * creation order, which is the order playlist searches go through other listeners' playlists.
+ * A playlist keeps its place when it is made private and public again.
+ */
+public final class PublicPlaylistIndex {
+    private static final int SEQUENCE_BITS = 32;
+    private static final String PUBLIC = "public";
+
+    private final TreeMap<Long, Playlist> publicPlaylists = new TreeMap<>();
+    private final HashMap<Playlist, Long> keys = new HashMap<>();
+    private int nextSequence = 0;
+
+    private static long groupStart(final int ownerOrdinal) {
+        return (long) ownerOrdinal << SEQUENCE_BITS;
+    }
+
+    /**
+     * @param playlist a newly created playlist
+     * @param ownerOrdinal the registration ordinal of its owner
+     */
+    public void add(final Playlist playlist, final int ownerOrdinal) {
+        long key = groupStart(ownerOrdinal) | nextSequence++;
+        keys.put(playlist, key);
+        if (playlist.getVisibility().equals(PUBLIC)) {
+            publicPlaylists.put(key, playlist);
+        }
+    }
+
+    /**
+     * should be called after the visibility of the playlist was switched
+     * @param playlist the given playlist
+     */
+    public void updateVisibility(final Playlist playlist) {
+        Long key = keys.get(playlist);
+        if (key == null) {
+            return;
+        }
+        if (playlist.getVisibility().equals(PUBLIC)) {
+            publicPlaylists.put(key, playlist);
+        } else {
+            publicPlaylists.remove(key);
+        }
+    }
+
+    /**
+     * @param playlist the playlist removed from the library
+     */
+    public void remove(final Playlist playlist) {
+        Long key = keys.remove(playlist);
+        if (key != null) {
+            publicPlaylists.remove(key);
+        }
+    }
+
+    /**
+     * @return every public playlist, as a live view
+     */
+    public Iterable<Playlist> all() {
+        return publicPlaylists.values();
+    }
+
+    /**
+     * @param ownerOrdinal the registration ordinal of a user
+     * @return the public playlists of the user, as a live view
+     */
+    public Iterable<Playlist> ownedBy(final int ownerOrdinal) {
+        return publicPlaylists.subMap(groupStart(ownerOrdinal), true,
+                groupStart(ownerOrdinal + 1), false).values();
+    }
+}
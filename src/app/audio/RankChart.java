@@ -0,0 +1,80 @@
+package app.audio;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.TreeMap;
+import java.util.function.IntPredicate;
+
+/**
+ * Ordinals bucketed by a count (likes, followers...), kept up to date one change at a time.
+ * The top of the chart is read highest count first and, for equal counts, in ascending
+ * ordinal order, the same order a stable sort of the catalog by count would give.
+ */
+public final class RankChart {
+    private final TreeMap<Integer, SongBitmap> buckets = new TreeMap<>();
+
+    /**
+     * @param ordinal the ordinal added to the chart
+     * @param count its current count
+     */
+    public void add(final int ordinal, final int count) {
+        buckets.computeIfAbsent(count, key -> new SongBitmap()).add(ordinal);
+    }
+
+    /**
+     * @param ordinal the ordinal removed from the chart
+     * @param count its current count
+     */
+    public void remove(final int ordinal, final int count) {
+        SongBitmap bucket = buckets.get(count);
+        if (bucket == null) {
+            return;
+        }
+        bucket.remove(ordinal);
+        if (bucket.cardinality() == 0) {
+            buckets.remove(count);
+        }
+    }
+
+    /**
+     * @param ordinal an ordinal in the chart
+     * @param oldCount its previous count
+     * @param newCount its current count
+     */
+    public void update(final int ordinal, final int oldCount, final int newCount) {
+        remove(ordinal, oldCount);
+        add(ordinal, newCount);
+    }
+
+    /**
+     * @param size the maximum number of ordinals returned
+     * @return the ordinals at the top of the chart, in O(size)
+     */
+    public int[] top(final int size) {
+        return top(size, ordinal -> true);
+    }
+
+    /**
+     * @param size the maximum number of ordinals returned
+     * @param accept the ordinals that may be returned
+     * @return the accepted ordinals at the top of the chart
+     */
+    public int[] top(final int size, final IntPredicate accept) {
+        int[] top = new int[size];
+        int found = 0;
+        for (Map.Entry<Integer, SongBitmap> bucket: buckets.descendingMap().entrySet()) {
+            PrimitiveIterator.OfInt ordinals = bucket.getValue().iterator();
+            while (ordinals.hasNext() && found < size) {
+                int ordinal = ordinals.nextInt();
+                if (accept.test(ordinal)) {
+                    top[found++] = ordinal;
+                }
+            }
+            if (found == size) {
+                break;
+            }
+        }
+        return Arrays.copyOf(top, found);
+    }
+}
@@ -0,0 +1,104 @@
+package app.audio;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.TreeSet;
+
+/**
+ * Items ranked by a materialized count, highest count first. Equal counts are ordered by
+ * the given tie break and then by insertion order, like a stable sort of the catalog.
+ * Counts are updated one change at a time, so the ranking is never rebuilt.
+ * @param <T> the type of the ranked items
+ */
+public final class RankedSet<T> {
+    private static final class Rank<T> {
+        private final T item;
+        private final long sequence;
+        private int count;
+
+        private Rank(final T item, final long sequence, final int count) {
+            this.item = item;
+            this.sequence = sequence;
+            this.count = count;
+        }
+    }
+
+    private final TreeSet<Rank<T>> ranking;
+    private final HashMap<T, Rank<T>> ranks = new HashMap<>();
+    private long nextSequence = 0;
+
+    public RankedSet() {
+        this((item1, item2) -> 0);
+    }
+
+    /**
+     * @param tieBreak the order of items having the same count
+     */
+    public RankedSet(final Comparator<? super T> tieBreak) {
+        Comparator<Rank<T>> byCount = (rank1, rank2) -> Integer.compare(rank2.count, rank1.count);
+        ranking = new TreeSet<>(byCount.thenComparing(rank -> rank.item, tieBreak)
+                .thenComparingLong(rank -> rank.sequence));
+    }
+
+    /**
+     * @param item the item added to the ranking
+     * @param count its current count
+     */
+    public void add(final T item, final int count) {
+        if (ranks.containsKey(item)) {
+            return;
+        }
+        Rank<T> rank = new Rank<>(item, nextSequence++, count);
+        ranks.put(item, rank);
+        ranking.add(rank);
+    }
+
+    /**
+     * @param item the item removed from the ranking
+     */
+    public void remove(final T item) {
+        Rank<T> rank = ranks.remove(item);
+        if (rank != null) {
+            ranking.remove(rank);
+        }
+    }
+
+    /**
+     * @param item a ranked item
+     * @param delta the change of its count
+     */
+    public void change(final T item, final int delta) {
+        Rank<T> rank = ranks.get(item);
+        if (rank == null || delta == 0) {
+            return;
+        }
+        ranking.remove(rank);
+        rank.count += delta;
+        ranking.add(rank);
+    }
+
+    /**
+     * @param item a given item
+     * @return its count, or 0 if it is not ranked
+     */
+    public int countOf(final T item) {
+        Rank<T> rank = ranks.get(item);
+        return rank == null ? 0 : rank.count;
+    }
+
+    /**
+     * @param size the maximum number of items returned
+     * @return the items at the top of the ranking, in O(size)
+     */
+    public ArrayList<T> top(final int size) {
+        ArrayList<T> top = new ArrayList<>(size);
+        for (Rank<T> rank: ranking) {
+            if (top.size() == size) {
+                break;
+            }
+            top.add(rank.item);
+        }
+        return top;
+    }
+}
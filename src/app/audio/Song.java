@@ -3,14 +3,17 @@ package app.audio;
 import app.persons.Listener;
 import app.persons.User;
 import fileio.input.SongInput;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import main.Command;
 import app.player.AudioPlayer;
 import app.player.Filter;
+import app.player.SongFilter;
 import app.player.Status;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 
 @Getter @Setter
 public final class Song extends AudioFile implements AudioItem {
@@ -21,17 +24,57 @@ public final class Song extends AudioFile implements AudioItem {
     private int releaseYear;
     private String artist;
     private int likes;
+    private int ordinal;
+
+    @Setter(AccessLevel.NONE)
+    private String foldedName;
+    @Setter(AccessLevel.NONE)
+    private String foldedLyrics;
+    @Setter(AccessLevel.NONE)
+    private HashSet<String> tagSet;
 
     public Song(final SongInput input) {
-        this.name = input.getName();
         this.album = input.getAlbum();
         this.duration = input.getDuration();
         this.artist = input.getArtist();
         this.genre = input.getGenre();
-        this.lyrics = input.getLyrics();
-        this.tags = input.getTags();
         this.releaseYear = input.getReleaseYear();
         likes = 0;
+        setName(input.getName());
+        setLyrics(input.getLyrics());
+        setTags(input.getTags());
+    }
+
+    private static String fold(final String text) {
+        return text == null ? "" : text.toLowerCase();
+    }
+
+    /**
+     * also folds the name matched by the name filter
+     * @param name the name of the song
+     */
+    @Override
+    public void setName(final String name) {
+        this.name = name;
+        foldedName = fold(name);
+    }
+
+    /**
+     * also folds the lyrics matched by the lyrics filter
+     * @param lyrics the lyrics of the song
+     */
+    public void setLyrics(final String lyrics) {
+        this.lyrics = lyrics;
+        foldedLyrics = fold(lyrics);
+    }
+
+    /**
+     * also builds the set matched by the tags filter
+     * @param tags the tags of the song
+     */
+    public void setTags(final ArrayList<String> tags) {
+        this.tags = tags;
+        tagSet = tags == null ? new HashSet<>() : new HashSet<>(tags);
     }
 
     /**
@@ -39,45 +82,7 @@ public final class Song extends AudioFile implements AudioItem {
      * @return true if all filters are met, false otherwise
      */
     public boolean matchesFilter(final Filter filters) {
-        if (filters.getName() != null
-                && !this.getName().toLowerCase().startsWith(filters.getName().toLowerCase())) {
-            return false;
-        }
-        if (filters.getAlbum() != null && !this.getAlbum().equals(filters.getAlbum())) {
-            return false;
-        }
-        if (filters.getArtist() != null && !this.getArtist().equals(filters.getArtist())) {
-            return false;
-        }
-        if (filters.getGenre() != null && !this.getGenre().equalsIgnoreCase(filters.getGenre())) {
-            return false;
-        }
-        if (filters.getTags() != null && !this.getTags().containsAll(filters.getTags())) {
-            return false;
-        }
-        if (filters.getLyrics() != null
-                && !this.getLyrics().toLowerCase().contains(filters.getLyrics().toLowerCase())) {
-            return false;
-        }
-
-        if (filters.getReleaseYear() != null) {
-            String stringReleaseYear = filters.getReleaseYear();
-            int numericYear;
-
-            if (stringReleaseYear.startsWith(">")) {
-                String numericPart = stringReleaseYear.substring(1);
-                numericYear = Integer.parseInt(numericPart);
-                return this.getReleaseYear() > numericYear;
-            } else if (stringReleaseYear.startsWith("<")) {
-                String numericPart = stringReleaseYear.substring(1);
-                numericYear = Integer.parseInt(numericPart);
-                return this.getReleaseYear() < numericYear;
-            } else {
-                numericYear = Integer.parseInt(stringReleaseYear);
-                return this.getReleaseYear() == numericYear;
-            }
-        }
-        return true;
+        return SongFilter.compile(filters).matches(this);
     }
 
     @Override
@@ -123,7 +128,7 @@ public final class Song extends AudioFile implements AudioItem {
             player.getStatus().setPaused(false);
             player.getStatus().setName("Ad Break");
             player.setAdBreakNext(false);
-            player.setCurrentItem(LibrarySingleton.getInstance().findSongByName("Ad Break"));
+            player.setCurrentItem(LibrarySingleton.getInstance().getAdBreakSong());
             return (Song) player.updateStatus(command);
         }
 
@@ -197,6 +202,7 @@ public final class Song extends AudioFile implements AudioItem {
      */
     public void like() {
         likes += 1;
+        LibrarySingleton.getInstance().songLikesChanged(this, likes - 1);
     }
 
     /**
@@ -204,6 +210,7 @@ public final class Song extends AudioFile implements AudioItem {
      */
     public void unlike() {
         likes -= 1;
+        LibrarySingleton.getInstance().songLikesChanged(this, likes + 1);
     }
 
     @Override
@@ -0,0 +1,241 @@
+package app.audio;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Compressed bitmap of song ordinals. Ordinals are split in chunks of 2^16 values; a chunk
+ * is stored as a sorted array while it is sparse and as a plain bitmap once it gets dense.
+ */
+public final class SongBitmap implements OrdinalSet {
+    private static final int CHUNK_BITS = 16;
+    private static final int LOW_MASK = (1 << CHUNK_BITS) - 1;
+    private static final int WORD_BITS = 6;
+    private static final int WORD_COUNT = (1 << CHUNK_BITS) >>> WORD_BITS;
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * one chunk of the bitmap. Exactly one of values and words is used.
+     */
+    private static final class Chunk {
+        private final int high;
+        private char[] values = new char[INITIAL_CAPACITY];
+        private long[] words = null;
+        private int size = 0;
+
+        private Chunk(final int high) {
+            this.high = high;
+        }
+
+        private boolean contains(final int low) {
+            if (words != null) {
+                return (words[low >>> WORD_BITS] & (1L << low)) != 0;
+            }
+            return Arrays.binarySearch(values, 0, size, (char) low) >= 0;
+        }
+
+        private void add(final int low) {
+            if (words != null) {
+                long bit = 1L << low;
+                if ((words[low >>> WORD_BITS] & bit) == 0) {
+                    words[low >>> WORD_BITS] |= bit;
+                    size++;
+                }
+                return;
+            }
+            int position = Arrays.binarySearch(values, 0, size, (char) low);
+            if (position >= 0) {
+                return;
+            }
+            if (size == ARRAY_LIMIT) {
+                toWords();
+                add(low);
+                return;
+            }
+            position = -position - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, size * 2));
+            }
+            System.arraycopy(values, position, values, position + 1, size - position);
+            values[position] = (char) low;
+            size++;
+        }
+
+        private void remove(final int low) {
+            if (words != null) {
+                long bit = 1L << low;
+                if ((words[low >>> WORD_BITS] & bit) != 0) {
+                    words[low >>> WORD_BITS] &= ~bit;
+                    size--;
+                    if (size < ARRAY_LIMIT / 2) {
+                        toValues();
+                    }
+                }
+                return;
+            }
+            int position = Arrays.binarySearch(values, 0, size, (char) low);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(values, position + 1, values, position, size - position - 1);
+            size--;
+        }
+
+        private void toWords() {
+            words = new long[WORD_COUNT];
+            for (int i = 0; i < size; ++i) {
+                words[values[i] >>> WORD_BITS] |= 1L << values[i];
+            }
+            values = null;
+        }
+
+        private void toValues() {
+            values = new char[Math.max(INITIAL_CAPACITY, size)];
+            int position = 0;
+            for (int word = 0; word < WORD_COUNT; ++word) {
+                long bits = words[word];
+                while (bits != 0) {
+                    values[position++] = (char) ((word << WORD_BITS)
+                            + Long.numberOfTrailingZeros(bits));
+                    bits &= bits - 1;
+                }
+            }
+            words = null;
+        }
+
+        /**
+         * @return the smallest value >= low in the chunk, or -1 if there is none
+         */
+        private int next(final int low) {
+            if (words != null) {
+                int word = low >>> WORD_BITS;
+                if (word >= WORD_COUNT) {
+                    return -1;
+                }
+                long bits = words[word] & (-1L << low);
+                while (bits == 0) {
+                    if (++word == WORD_COUNT) {
+                        return -1;
+                    }
+                    bits = words[word];
+                }
+                return (word << WORD_BITS) + Long.numberOfTrailingZeros(bits);
+            }
+            int position = Arrays.binarySearch(values, 0, size, (char) low);
+            if (position < 0) {
+                position = -position - 1;
+            }
+            return position < size ? values[position] : -1;
+        }
+    }
+
+    private Chunk[] chunks = new Chunk[INITIAL_CAPACITY];
+    private int chunkCount = 0;
+    private int cardinality = 0;
+
+    private int findChunk(final int high) {
+        int low = 0;
+        int highIndex = chunkCount - 1;
+        while (low <= highIndex) {
+            int middle = (low + highIndex) >>> 1;
+            if (chunks[middle].high < high) {
+                low = middle + 1;
+            } else if (chunks[middle].high > high) {
+                highIndex = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -low - 1;
+    }
+
+    /**
+     * @param ordinal the ordinal added to the set
+     */
+    public void add(final int ordinal) {
+        int high = ordinal >>> CHUNK_BITS;
+        int position = findChunk(high);
+        if (position < 0) {
+            position = -position - 1;
+            if (chunkCount == chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunkCount * 2);
+            }
+            System.arraycopy(chunks, position, chunks, position + 1, chunkCount - position);
+            chunks[position] = new Chunk(high);
+            chunkCount++;
+        }
+        Chunk chunk = chunks[position];
+        int before = chunk.size;
+        chunk.add(ordinal & LOW_MASK);
+        cardinality += chunk.size - before;
+    }
+
+    /**
+     * @param ordinal the ordinal removed from the set
+     */
+    public void remove(final int ordinal) {
+        int position = findChunk(ordinal >>> CHUNK_BITS);
+        if (position < 0) {
+            return;
+        }
+        Chunk chunk = chunks[position];
+        int before = chunk.size;
+        chunk.remove(ordinal & LOW_MASK);
+        cardinality -= before - chunk.size;
+        if (chunk.size == 0) {
+            System.arraycopy(chunks, position + 1, chunks, position, chunkCount - position - 1);
+            chunks[--chunkCount] = null;
+        }
+    }
+
+    @Override
+    public boolean contains(final int ordinal) {
+        int position = findChunk(ordinal >>> CHUNK_BITS);
+        return position >= 0 && chunks[position].contains(ordinal & LOW_MASK);
+    }
+
+    @Override
+    public int cardinality() {
+        return cardinality;
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int chunkPosition = 0;
+            private int nextLow = 0;
+            private int nextOrdinal = advance();
+
+            private int advance() {
+                while (chunkPosition < chunkCount) {
+                    Chunk chunk = chunks[chunkPosition];
+                    int low = nextLow <= LOW_MASK ? chunk.next(nextLow) : -1;
+                    if (low >= 0) {
+                        nextLow = low + 1;
+                        return (chunk.high << CHUNK_BITS) | low;
+                    }
+                    chunkPosition++;
+                    nextLow = 0;
+                }
+                return -1;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return nextOrdinal >= 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (nextOrdinal < 0) {
+                    throw new NoSuchElementException();
+                }
+                int ordinal = nextOrdinal;
+                nextOrdinal = advance();
+                return ordinal;
+            }
+        };
+    }
+}
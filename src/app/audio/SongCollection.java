@@ -2,20 +2,22 @@ package app.audio;
 
 import app.persons.Listener;
 import app.player.AudioPlayer;
+import app.player.PlayOrder;
 import app.player.Status;
 import lombok.Getter;
 import lombok.Setter;
 import main.Command;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Random;
+import java.util.function.Predicate;
 
 @Getter @Setter
 public abstract class SongCollection implements AudioItem {
     protected String name;
     protected String owner;
     protected ArrayList<Song> songs;
+    private int songsVersion;
+    private SongTimeline songTimeline;
 
     /**
      * updates the player metadata, as if playing the actual songs.
@@ -26,30 +28,27 @@ public abstract class SongCollection implements AudioItem {
     public Song play(final AudioPlayer player, final Command command) {
         int time = player.getElapsedTime();
         Status status = player.getStatus();
-        ArrayList<Integer> positions = new ArrayList<>();
         int id = player.getTrackId();
         Listener listener = (Listener) player.getUser();
 
-        for (int i = 0; i < songs.size(); ++i) {
-            positions.add(i, i);
-        }
+        PlayOrder positions;
         if (status.isShuffle()) {
-            Collections.shuffle(positions, new Random(player.getSeed()));
-            for (int i = 0; i < positions.size(); ++i) {
-                if (positions.get(i) == id) {
-                    id = i;
-                    break;
-                }
+            positions = player.getShuffleOrder(songs.size());
+            int shuffledId = positions.indexOf(id);
+            if (shuffledId >= 0) {
+                id = shuffledId;
             }
+        } else {
+            positions = PlayOrder.inOrder(songs.size());
         }
 
-        if (songs.get(positions.get(id)).getName().equals(status.getName())) {
-            listener.addToSongListens(songs.get(positions.get(id)), -1);
+        if (songs.get(positions.position(id)).getName().equals(status.getName())) {
+            listener.addToSongListens(songs.get(positions.position(id)), -1);
         }
 
         if (player.isAdBreakNext() && time >= songs.get(id).getDuration()) {
             time -= songs.get(id).getDuration();
-            listener.addToSongListens(songs.get(positions.get(id)), 1);
+            listener.addToSongListens(songs.get(positions.position(id)), 1);
             player.setElapsedTime(time);
             switch (status.getRepeat()) {
                 case "No Repeat" -> {
@@ -71,48 +70,37 @@ public abstract class SongCollection implements AudioItem {
             player.getStatus().empty();
             player.getStatus().setPaused(false);
             player.setAdBreakNext(false);
-            player.setCurrentItem(LibrarySingleton.getInstance().findSongByName("Ad Break"));
+            player.setCurrentItem(LibrarySingleton.getInstance().getAdBreakSong());
             return (Song) player.updateStatus(command);
         }
         switch (status.getRepeat()) {
             case "Repeat All" -> {
-                while (time >= 0) {
-                    for (int i = 0; i < songs.size(); ++i) {
-                        int position = positions.get((i + id) % songs.size());
-                        listener.addToSongListens(songs.get(position), 1);
-
-                        if (time >= songs.get(position).getDuration()) {
-                            time -= songs.get(position).getDuration();
-                        } else {
-                            player.setElapsedTime(time);
-                            status.setName(songs.get(position).getName());
-                            status.setRemainedTime(songs.get(position).getDuration() - time);
-                            player.setTrackId(position);
-
-                            return songs.get(position);
-                        }
-                    }
+                if (time < 0) {
+                    return null;
+                }
+                SongTimeline timeline = timeline(positions);
+                long cycle = timeline.length();
+                if (cycle == 0) {
+                    break;
                 }
+                long target = timeline.offset(id) + time;
+                long cycles = target / cycle;
+                int index = timeline.indexAt(target % cycle, 0);
+                creditListens(listener, positions, id, cycles * songs.size() + index - id + 1);
+                return moveTo(player, positions.position(index),
+                        (int) (target % cycle - timeline.offset(index)));
             }
             case "No Repeat" -> {
-                for (int i = 0; i < songs.size(); ++i) {
-                    if (i + id >= songs.size()) {
-                        time = 1;
-                        break;
-                    }
-                    int position = positions.get(i + id);
-                    listener.addToSongListens(songs.get(position), 1);
-
-                    if (time >= songs.get(position).getDuration()) {
-                        time -= songs.get(position).getDuration();
-                    } else {
-                        player.setElapsedTime(time);
-                        status.setName(songs.get(position).getName());
-                        status.setRemainedTime(songs.get(position).getDuration() - time);
-                        player.setTrackId(position);
-
-                        return songs.get(position);
-                    }
+                SongTimeline timeline = timeline(positions);
+                long target = timeline.offset(id) + time;
+                int index = timeline.indexAt(target, id);
+                if (index == songs.size()) {
+                    creditListens(listener, positions, id, songs.size() - id);
+                    time = 1;
+                } else {
+                    creditListens(listener, positions, id, index - id + 1);
+                    return moveTo(player, positions.position(index),
+                            (int) (target - timeline.offset(index)));
                 }
             }
             case "Repeat Current Song" -> {
@@ -135,6 +123,80 @@ public abstract class SongCollection implements AudioItem {
         return null;
     }
 
+    private SongTimeline timeline(final PlayOrder order) {
+        if (songTimeline == null || !songTimeline.describes(songs, songsVersion, order)) {
+            songTimeline = new SongTimeline(songs, songsVersion, order);
+        }
+        return songTimeline;
+    }
+
+    /**
+     * credits the songs played one after the other, starting from a given song. Whole cycles
+     * through the collection are credited at once, so the cost does not grow with them.
+     * @param listener the listener of the songs
+     * @param order the order the songs are played in
+     * @param first the index of the first song played, in the play order
+     * @param played the number of songs played
+     */
+    private void creditListens(final Listener listener, final PlayOrder order,
+                               final int first, final long played) {
+        long cycles = played / songs.size();
+        long rest = played % songs.size();
+        for (int i = 0; i < Math.min(played, songs.size()); ++i) {
+            long listens = cycles + (i < rest ? 1 : 0);
+            Song song = songs.get(order.position((first + i) % songs.size()));
+            listener.addToSongListens(song, (int) listens);
+        }
+    }
+
+    private Song moveTo(final AudioPlayer player, final int position, final int elapsedTime) {
+        Song song = songs.get(position);
+        player.setElapsedTime(elapsedTime);
+        player.getStatus().setName(song.getName());
+        player.getStatus().setRemainedTime(song.getDuration() - elapsedTime);
+        player.setTrackId(position);
+        return song;
+    }
+
+    /**
+     * the players of the collection may have lost their track, so they are updated by the
+     * next operation over every player
+     */
+    private void songsRemoved() {
+        LibrarySingleton library = LibrarySingleton.getInstance();
+        for (AudioPlayer player: library.getPlayerIndex().playersOf(this)) {
+            library.getTransitionSchedule().touched(player);
+        }
+    }
+
+    /**
+     * @param song the song added at the end of the collection
+     */
+    public void addSong(final Song song) {
+        songs.add(song);
+        songsVersion++;
+        LibrarySingleton.getInstance().getPlayerIndex().songAdded(this, song);
+    }
+
+    /**
+     * @param song the song removed from the collection
+     */
+    public void removeSong(final Song song) {
+        songs.remove(song);
+        songsVersion++;
+        songsRemoved();
+    }
+
+    /**
+     * @param filter the songs removed from the collection
+     */
+    public void removeSongsIf(final Predicate<Song> filter) {
+        if (songs.removeIf(filter)) {
+            songsVersion++;
+            songsRemoved();
+        }
+    }
+
     /**
      * @return true if the songs can be shuffled
      */
@@ -0,0 +1,69 @@
+package app.audio;
+
+import app.player.PlayOrder;
+
+import java.util.ArrayList;
+
+/**
+ * The start offset of every song of a collection, in the order the songs are played in.
+ * Finding the song playing at a given moment is a binary search over the offsets.
+ */
+final class SongTimeline {
+    private final ArrayList<Song> songs;
+    private final int version;
+    private final PlayOrder order;
+    private final long[] offsets;
+
+    SongTimeline(final ArrayList<Song> songs, final int version, final PlayOrder order) {
+        this.songs = songs;
+        this.version = version;
+        this.order = order;
+        offsets = new long[songs.size() + 1];
+        for (int i = 0; i < songs.size(); ++i) {
+            offsets[i + 1] = offsets[i] + songs.get(order.position(i)).getDuration();
+        }
+    }
+
+    /**
+     * @return true if the timeline still describes the given songs, played in the given order
+     */
+    boolean describes(final ArrayList<Song> otherSongs, final int otherVersion,
+                      final PlayOrder otherOrder) {
+        return songs == otherSongs && version == otherVersion && order.isSameOrder(otherOrder);
+    }
+
+    /**
+     * @return the total duration of the songs
+     */
+    long length() {
+        return offsets[offsets.length - 1];
+    }
+
+    /**
+     * @param index the index of a song in the play order
+     * @return the moment the song starts at
+     */
+    long offset(final int index) {
+        return offsets[index];
+    }
+
+    /**
+     * @param time a moment, measured from the start of the first song
+     * @param from the index the search starts from
+     * @return the index of the first song, not before from, still playing at the given
+     * moment, or the number of songs if all of them have ended
+     */
+    int indexAt(final long time, final int from) {
+        int low = from + 1;
+        int high = offsets.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (offsets[middle] > time) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low - 1;
+    }
+}
@@ -0,0 +1,123 @@
+package app.audio;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Listens per song over a sliding window of simulated time. The window is a ring of time
+ * buckets, each one logging the listens recorded while it was current; when the clock moves
+ * past a bucket its listens are taken back out of the totals. The totals feed a RankChart,
+ * so the top of the window is read in O(K) whatever the size of the catalog.
+ */
+public final class TrendingChart {
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * the listens recorded while one bucket was current
+     */
+    private static final class Bucket {
+        private int[] ordinals = new int[INITIAL_CAPACITY];
+        private int[] listens = new int[INITIAL_CAPACITY];
+        private int size = 0;
+
+        private void append(final int ordinal, final int count) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                listens = Arrays.copyOf(listens, size * 2);
+            }
+            ordinals[size] = ordinal;
+            listens[size] = count;
+            size++;
+        }
+    }
+
+    private final int bucketSeconds;
+    private final Bucket[] ring;
+    private long currentBucket = 0;
+    private int[] totals = new int[INITIAL_CAPACITY];
+    private final RankChart chart = new RankChart();
+
+    /**
+     * @param windowSeconds the length of the window, in simulated seconds
+     * @param bucketCount the number of buckets the window is split in
+     */
+    public TrendingChart(final int windowSeconds, final int bucketCount) {
+        bucketSeconds = Math.max(1, windowSeconds / bucketCount);
+        ring = new Bucket[bucketCount];
+        for (int i = 0; i < bucketCount; ++i) {
+            ring[i] = new Bucket();
+        }
+    }
+
+    /**
+     * @return the length of the window, in simulated seconds
+     */
+    public int getWindowSeconds() {
+        return bucketSeconds * ring.length;
+    }
+
+    private Bucket bucketAt(final long bucket) {
+        return ring[(int) (bucket % ring.length)];
+    }
+
+    private void change(final int ordinal, final int delta) {
+        if (ordinal >= totals.length) {
+            totals = Arrays.copyOf(totals, Math.max(ordinal + 1, totals.length * 2));
+        }
+        int oldTotal = totals[ordinal];
+        int newTotal = oldTotal + delta;
+        totals[ordinal] = newTotal;
+        if (oldTotal > 0) {
+            chart.remove(ordinal, oldTotal);
+        }
+        if (newTotal > 0) {
+            chart.add(ordinal, newTotal);
+        }
+    }
+
+    /**
+     * @param timestamp the current simulated time
+     * @return true if the window has not yet reached the bucket of the timestamp
+     */
+    public boolean isBehind(final int timestamp) {
+        return timestamp / bucketSeconds > currentBucket;
+    }
+
+    /**
+     * moves the window forward, dropping the listens that fall out of it
+     * @param timestamp the current simulated time
+     */
+    public void advanceTo(final int timestamp) {
+        long bucket = timestamp / bucketSeconds;
+        if (bucket <= currentBucket) {
+            return;
+        }
+        long firstExpired = Math.max(currentBucket + 1, bucket - ring.length + 1);
+        for (long expired = firstExpired; expired <= bucket; ++expired) {
+            Bucket old = bucketAt(expired);
+            for (int i = 0; i < old.size; ++i) {
+                change(old.ordinals[i], -old.listens[i]);
+            }
+            old.size = 0;
+        }
+        currentBucket = bucket;
+    }
+
+    /**
+     * @param ordinal the ordinal of the song listened to
+     * @param listens the number of listens, negative when listens are taken back
+     */
+    public void record(final int ordinal, final int listens) {
+        bucketAt(currentBucket).append(ordinal, listens);
+        change(ordinal, listens);
+    }
+
+    /**
+     * @param size the maximum number of songs returned
+     * @param accept the ordinals that may be returned
+     * @return the ordinals of the most listened songs in the window
+     */
+    public int[] top(final int size, final IntPredicate accept) {
+        return chart.top(size, accept);
+    }
+}
@@ -0,0 +1,164 @@
+package app.audio;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Range index over the release year of every song: one bitmap per year, kept sorted by
+ * year, plus the year of every ordinal so that membership is checked in constant time.
+ */
+public final class YearIndex {
+    private static final int NO_YEAR = Integer.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final TreeMap<Integer, SongBitmap> buckets = new TreeMap<>();
+    private int[] yearByOrdinal = new int[INITIAL_CAPACITY];
+
+    /**
+     * @param year the release year of the song
+     * @param ordinal the ordinal of the song
+     */
+    public void add(final int year, final int ordinal) {
+        if (ordinal >= yearByOrdinal.length) {
+            int oldLength = yearByOrdinal.length;
+            yearByOrdinal = Arrays.copyOf(yearByOrdinal,
+                    Math.max(ordinal + 1, oldLength * 2));
+            Arrays.fill(yearByOrdinal, oldLength, yearByOrdinal.length, NO_YEAR);
+        }
+        yearByOrdinal[ordinal] = year;
+        buckets.computeIfAbsent(year, key -> new SongBitmap()).add(ordinal);
+    }
+
+    /**
+     * @param year the release year of the song
+     * @param ordinal the ordinal of the song removed from the catalog
+     */
+    public void remove(final int year, final int ordinal) {
+        SongBitmap bucket = buckets.get(year);
+        if (bucket == null) {
+            return;
+        }
+        bucket.remove(ordinal);
+        if (bucket.cardinality() == 0) {
+            buckets.remove(year);
+        }
+        yearByOrdinal[ordinal] = NO_YEAR;
+    }
+
+    /**
+     * @param year a given year
+     * @return the songs released strictly before the year
+     */
+    public OrdinalSet before(final int year) {
+        return new Range(buckets.headMap(year, false), Integer.MIN_VALUE, year - 1);
+    }
+
+    /**
+     * @param year a given year
+     * @return the songs released strictly after the year
+     */
+    public OrdinalSet after(final int year) {
+        return new Range(buckets.tailMap(year, false), year + 1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param year a given year
+     * @return the songs released in the year
+     */
+    public OrdinalSet during(final int year) {
+        return new Range(buckets.subMap(year, true, year, true), year, year);
+    }
+
+    /**
+     * The songs released between two years, both inclusive. Iteration merges the
+     * buckets of the range lazily, so it costs O(result) and not O(catalog).
+     */
+    private final class Range implements OrdinalSet {
+        private final ArrayList<SongBitmap> parts;
+        private final int from;
+        private final int to;
+        private final int cardinality;
+
+        private Range(final NavigableMap<Integer, SongBitmap> view,
+                      final int from, final int to) {
+            this.parts = new ArrayList<>(view.values());
+            this.from = from;
+            this.to = to;
+            int total = 0;
+            for (SongBitmap part: parts) {
+                total += part.cardinality();
+            }
+            this.cardinality = total;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public boolean contains(final int ordinal) {
+            if (ordinal < 0 || ordinal >= yearByOrdinal.length) {
+                return false;
+            }
+            int year = yearByOrdinal[ordinal];
+            return year != NO_YEAR && year >= from && year <= to;
+        }
+
+        @Override
+        public PrimitiveIterator.OfInt iterator() {
+            if (parts.size() == 1) {
+                return parts.get(0).iterator();
+            }
+            PriorityQueue<Head> heads = new PriorityQueue<>(Math.max(1, parts.size()));
+            for (SongBitmap part: parts) {
+                PrimitiveIterator.OfInt source = part.iterator();
+                if (source.hasNext()) {
+                    heads.add(new Head(source.nextInt(), source));
+                }
+            }
+            return new PrimitiveIterator.OfInt() {
+                @Override
+                public boolean hasNext() {
+                    return !heads.isEmpty();
+                }
+
+                @Override
+                public int nextInt() {
+                    Head head = heads.poll();
+                    if (head == null) {
+                        throw new NoSuchElementException();
+                    }
+                    int ordinal = head.value;
+                    if (head.source.hasNext()) {
+                        heads.add(new Head(head.source.nextInt(), head.source));
+                    }
+                    return ordinal;
+                }
+            };
+        }
+    }
+
+    /**
+     * the next ordinal of one bucket, while merging several buckets
+     */
+    private static final class Head implements Comparable<Head> {
+        private final int value;
+        private final PrimitiveIterator.OfInt source;
+
+        private Head(final int value, final PrimitiveIterator.OfInt source) {
+            this.value = value;
+            this.source = source;
+        }
+
+        @Override
+        public int compareTo(final Head other) {
+            return Integer.compare(value, other.value);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package app.output.format_classes;
+
+import app.persons.MerchLedger;
+import app.player.Merch;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter @Setter
+public class MerchSalesOutput {
+    private String name;
+    private long unitsSold;
+    private long revenue;
+    public MerchSalesOutput(final Merch merch, final MerchLedger ledger) {
+        name = merch.getName();
+        unitsSold = ledger.unitsSold(name);
+        revenue = ledger.revenueOf(name);
+    }
+}
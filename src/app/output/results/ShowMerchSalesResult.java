@@ -0,0 +1,17 @@
+package app.output.results;
+
+import app.output.format_classes.MerchSalesOutput;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+
+@Getter @Setter
+public class ShowMerchSalesResult extends Result {
+    private ArrayList<MerchSalesOutput> result;
+    private ArrayList<String> topBuyers;
+    public ShowMerchSalesResult() {
+        super();
+        setCommand("showMerchSales");
+    }
+}
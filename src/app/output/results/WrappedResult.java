@@ -21,7 +21,7 @@ public final class WrappedResult extends Result {
         private Map<String, Object> result = null;
         public Builder(final Listener listener) {
             username = listener.getUsername();
-            if (listener.getSongListens().isEmpty() && listener.getEpisodeListens().isEmpty()) {
+            if (!listener.hasListens()) {
                 message = "No data to show for user " + listener.getUsername() + ".";
             } else {
                 result = new LinkedHashMap<>();
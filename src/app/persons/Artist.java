@@ -10,9 +10,13 @@ import app.player.Event;
 import app.player.Searchable;
 import app.player.Filter;
 import app.output.format_classes.AlbumOutput;
+import app.output.format_classes.MerchSalesOutput;
 import app.output.results.ShowAlbumsResult;
+import app.output.results.ShowMerchSalesResult;
 import app.output.results.WrappedResult;
+import app.ranking.IntTopK;
 import fileio.input.UserInput;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import main.Command;
@@ -22,17 +26,18 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @Getter @Setter
 public final class Artist extends User implements Searchable {
     private ArrayList<Album> albums;
-    private ArrayList<Event> events;
-    private ArrayList<Merch> merchItems;
+    private LinkedHashMap<String, Event> events;
+    private LinkedHashMap<String, Merch> merchItems;
+    private final MerchLedger merchLedger;
+    @Setter(AccessLevel.NONE)
     private double merchRevenue;
-    private double streamsRevenue;
-    private HashMap<String, Double> songProfits;
-    private float plays;
+    private final RevenueLedger streamsLedger;
+    @Setter(AccessLevel.NONE)
+    private int plays;
     private ArrayList<Listener> subscribers;
 
     public Artist(final Command command) {
@@ -41,9 +46,10 @@ public final class Artist extends User implements Searchable {
         plays = 0;
         subscribers = new ArrayList<>();
         albums = new ArrayList<>();
-        events = new ArrayList<>();
-        merchItems = new ArrayList<>();
-        songProfits = new HashMap<>();
+        events = new LinkedHashMap<>();
+        merchItems = new LinkedHashMap<>();
+        merchLedger = new MerchLedger();
+        streamsLedger = new RevenueLedger();
     }
     public Artist(final UserInput user) {
         super(user);
@@ -51,9 +57,45 @@ public final class Artist extends User implements Searchable {
         plays = 0;
         subscribers = new ArrayList<>();
         albums = new ArrayList<>();
-        events = new ArrayList<>();
-        merchItems = new ArrayList<>();
-        songProfits = new HashMap<>();
+        events = new LinkedHashMap<>();
+        merchItems = new LinkedHashMap<>();
+        merchLedger = new MerchLedger();
+        streamsLedger = new RevenueLedger();
+    }
+
+    /**
+     * @return true if the artist sold merch or was listened to, so it is in the final ranking
+     */
+    public boolean isPaid() {
+        return plays > 0 || merchRevenue > 0;
+    }
+
+    /**
+     * @param listens the number of listens of the artist's songs, negative when taken back
+     */
+    public void addPlays(final int listens) {
+        boolean wasPaid = isPaid();
+        plays += listens;
+        if (isPaid() != wasPaid) {
+            LibrarySingleton.getInstance().getRevenueRanking().update(this);
+        }
+    }
+
+    /**
+     * @param price the price of the merch sold
+     */
+    public void addMerchRevenue(final double price) {
+        merchRevenue += price;
+        LibrarySingleton.getInstance().getRevenueRanking().update(this);
+    }
+
+    /**
+     * @param songName the name of the song listened to
+     * @param amount the revenue of the song
+     */
+    public void addStreamRevenue(final String songName, final double amount) {
+        streamsLedger.credit(songName, amount);
+        LibrarySingleton.getInstance().getRevenueRanking().update(this);
     }
 
     /**
@@ -73,17 +115,34 @@ public final class Artist extends User implements Searchable {
         return result;
     }
 
+    /**
+     * @param command the given command
+     * @return the sales of every merch item and the top buyers, formatted for output
+     */
+    public ShowMerchSalesResult showMerchSales(final Command command) {
+        final int topSize = 5;
+        ShowMerchSalesResult result = new ShowMerchSalesResult();
+        result.setTimestamp(command.getTimestamp());
+        result.setUser(command.getUsername());
+        ArrayList<MerchSalesOutput> outputs = new ArrayList<>();
+        for (Merch merch: merchItems.values()) {
+            outputs.add(new MerchSalesOutput(merch, merchLedger));
+        }
+        result.setResult(outputs);
+        ArrayList<String> topBuyers = new ArrayList<>();
+        for (Listener buyer: merchLedger.topBuyers(topSize)) {
+            topBuyers.add(buyer.getUsername());
+        }
+        result.setTopBuyers(topBuyers);
+        return result;
+    }
+
     /**
      * @param name the name of the merch
      * @return true if merch with given name already exists
      */
     public boolean hasMerchWithName(final String name) {
-        for (Merch merch: merchItems) {
-            if (merch.getName().equals(name)) {
-                return true;
-            }
-        }
-        return false;
+        return merchItems.containsKey(name);
     }
 
     @Override
@@ -120,11 +179,12 @@ public final class Artist extends User implements Searchable {
     public String delete(final Command command) {
         LibrarySingleton library = LibrarySingleton.getInstance();
         for (AudioPlayer player: library.getAudioPlayers().values()) {
-            player.setCurrentFile(player.updateStatus(command));
+            player.updateIfDue(command);
             if (player.getCurrentItem() == null) {
                 continue;
             }
-            if (player.getCurrentItem().isOwnedBy(this)) {
+            if (library.getPlayerIndex().involves(player, getUsername())
+                    && player.getCurrentItem().isOwnedBy(this)) {
                 return getUsername() + " can't be deleted.";
             }
         }
@@ -136,18 +196,23 @@ public final class Artist extends User implements Searchable {
 
         for (Album album: albums) {
             for (Song song: album.getSongs()) {
-                library.getSongs().remove(song);
+                library.removeSong(song);
             }
-            library.getAlbums().remove(album);
+            library.removeAlbum(album);
         }
         for (Listener listener: library.getListeners()) {
             listener.getLikedSongs().removeIf(song -> song.getArtist().equals(getName()));
 
             for (Playlist playlist: listener.getPlaylists()) {
-                playlist.getSongs().removeIf(song -> song.getArtist().equals(getName()));
+                playlist.removeSongsIf(song -> song.getArtist().equals(getName()));
             }
         }
         library.getArtists().remove(this);
+        library.getArtistChart().remove(this);
+        library.getSearchCache().invalidate("artist");
+        library.flushListens();
+        library.getUserDirectory().remove(getUsername());
+        library.getRevenueRanking().remove(this);
         return getUsername() + " was successfully deleted.";
     }
 
@@ -168,62 +233,36 @@ public final class Artist extends User implements Searchable {
         Map<String, Integer> songListenCounts = new HashMap<>();
         Map<String, Integer> fansListenCounts = new HashMap<>();
         for (Listener listener: LibrarySingleton.getInstance().getListeners()) {
-            int listenCounter = 0;
             if (audioPlayers.containsKey(listener.getUsername())) {
-                AudioPlayer player = audioPlayers.get(listener.getUsername());
-                player.setCurrentFile(player.updateStatus(command));
+                audioPlayers.get(listener.getUsername()).updateIfDue(command);
             }
 
-            for (Map.Entry<Song, Integer> entry: listener.getSongListens().entrySet()) {
-                if (entry.getKey().getArtist().equals(getUsername())) {
-                    String songName = entry.getKey().getName();
-                    String albumName = entry.getKey().getAlbum();
-                    int listens = entry.getValue();
-                    listenCounter += listens;
-                    albumListenCounts.put(albumName,
-                            albumListenCounts.getOrDefault(albumName, 0) + listens);
-                    songListenCounts.put(songName,
-                            songListenCounts.getOrDefault(songName, 0) + listens);
+            int[] listenCounter = {0};
+            listener.forEachSongListen((song, listens) -> {
+                if (song.getArtist().equals(getUsername())) {
+                    listenCounter[0] += listens;
+                    albumListenCounts.merge(song.getAlbum(), listens, Integer::sum);
+                    songListenCounts.merge(song.getName(), listens, Integer::sum);
                 }
-            }
-            if (listenCounter > 0) {
-                fansListenCounts.put(listener.getUsername(), listenCounter);
+            });
+            if (listenCounter[0] > 0) {
+                fansListenCounts.put(listener.getUsername(), listenCounter[0]);
             }
         }
 
-        LinkedHashMap<String, Integer> top5Albums = albumListenCounts.entrySet().stream()
-                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
-                        .thenComparing(Map.Entry.comparingByKey()))
-                .limit(topSize)
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        Map.Entry::getValue,
-                        (e1, e2) -> e1,
-                        LinkedHashMap::new
-                ));
+        LinkedHashMap<String, Integer> top5Albums =
+                IntTopK.topCounts(albumListenCounts, topSize, Comparator.naturalOrder());
 
         result.getResult().put("topAlbums", top5Albums);
 
-        LinkedHashMap<String, Integer> top5Songs = songListenCounts.entrySet().stream()
-                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
-                        .thenComparing(Map.Entry.comparingByKey()))
-                .limit(topSize)
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        Map.Entry::getValue,
-                        (e1, e2) -> e1,
-                        LinkedHashMap::new
-                ));
+        LinkedHashMap<String, Integer> top5Songs =
+                IntTopK.topCounts(songListenCounts, topSize, Comparator.naturalOrder());
 
         result.getResult().put("topSongs", top5Songs);
 
 
-        ArrayList<String> top5Fans = fansListenCounts.entrySet().stream()
-                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
-                        .thenComparing(Map.Entry.comparingByKey()))
-                .limit(topSize)
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toCollection(ArrayList::new));
+        ArrayList<String> top5Fans = new ArrayList<>(
+                IntTopK.topCounts(fansListenCounts, topSize, Comparator.naturalOrder()).keySet());
 
         result.getResult().put("topFans", top5Fans);
 
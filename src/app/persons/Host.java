@@ -1,6 +1,5 @@
 package app.persons;
 
-import app.audio.Episode;
 import app.audio.LibrarySingleton;
 import app.audio.Podcast;
 import app.player.Announcement;
@@ -8,6 +7,7 @@ import app.player.AudioPlayer;
 import app.player.Filter;
 import app.player.Searchable;
 import app.output.results.WrappedResult;
+import app.ranking.IntTopK;
 import fileio.input.UserInput;
 import lombok.Getter;
 import main.Command;
@@ -17,18 +17,17 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @Getter
 public final class Host extends User implements Searchable {
     private final ArrayList<Podcast> podcasts;
-    private final ArrayList<Announcement> announcements;
+    private final LinkedHashMap<String, Announcement> announcements;
     private ArrayList<Listener> subscribers;
 
     public Host(final Command command) {
         super(command);
         podcasts = new ArrayList<>();
-        announcements = new ArrayList<>();
+        announcements = new LinkedHashMap<>();
         for (Podcast podcast: LibrarySingleton.getInstance().getPodcasts()) {
             if (podcast.isOwnedBy(this)) {
                 podcasts.add(podcast);
@@ -38,7 +37,7 @@ public final class Host extends User implements Searchable {
     public Host(final UserInput user) {
         super(user);
         podcasts = new ArrayList<>();
-        announcements = new ArrayList<>();
+        announcements = new LinkedHashMap<>();
     }
 
     @Override
@@ -75,11 +74,12 @@ public final class Host extends User implements Searchable {
     public String delete(final Command command) {
         LibrarySingleton library = LibrarySingleton.getInstance();
         for (AudioPlayer player: library.getAudioPlayers().values()) {
-            player.setCurrentFile(player.updateStatus(command));
+            player.updateIfDue(command);
             if (player.getCurrentItem() == null) {
                 continue;
             }
-            if (player.getCurrentItem().isOwnedBy(this)) {
+            if (library.getPlayerIndex().involves(player, getUsername())
+                    && player.getCurrentItem().isOwnedBy(this)) {
                 return getUsername() + " can't be deleted.";
             }
         }
@@ -88,8 +88,15 @@ public final class Host extends User implements Searchable {
                 return getUsername() + " can't be deleted.";
             }
         }
-        library.getPodcasts().removeIf(podcast -> podcast.getOwner().equals(getName()));
+        for (Podcast podcast: new ArrayList<>(library.getPodcasts())) {
+            if (podcast.getOwner().equals(getName())) {
+                library.removePodcast(podcast);
+            }
+        }
         library.getHosts().remove(this);
+        library.getSearchCache().invalidate("host");
+        library.flushListens();
+        library.getUserDirectory().remove(getUsername());
         return getUsername() + " was successfully deleted.";
     }
 
@@ -107,29 +114,19 @@ public final class Host extends User implements Searchable {
         Map<String, Integer> episodeListenCounts = new HashMap<>();
         int listeners = 0;
         for (Listener listener: LibrarySingleton.getInstance().getListeners()) {
-            boolean listened = false;
-            for (Map.Entry<Episode, Integer> entry: listener.getEpisodeListens().entrySet()) {
-                if (entry.getKey().getOwner().equals(getName())) {
-                    episodeListenCounts.put(entry.getKey().getName(),
-                            episodeListenCounts.getOrDefault(entry.getKey().getName(), 0)
-                                    + entry.getValue());
-                    listened = true;
+            boolean[] listened = {false};
+            listener.forEachEpisodeListen((episode, listens) -> {
+                if (episode.getOwner().equals(getName())) {
+                    episodeListenCounts.merge(episode.getName(), listens, Integer::sum);
+                    listened[0] = true;
                 }
-            }
-            if (listened) {
+            });
+            if (listened[0]) {
                 listeners++;
             }
         }
-        LinkedHashMap<String, Integer> top5Episodes = episodeListenCounts.entrySet().stream()
-                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
-                        .thenComparing(Map.Entry.comparingByKey()))
-                .limit(topSize)
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        Map.Entry::getValue,
-                        (e1, e2) -> e1,
-                        LinkedHashMap::new
-                ));
+        LinkedHashMap<String, Integer> top5Episodes =
+                IntTopK.topCounts(episodeListenCounts, topSize, Comparator.naturalOrder());
 
         result.getResult().put("topEpisodes", top5Episodes);
         result.getResult().put("listeners", listeners);
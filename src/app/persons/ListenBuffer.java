@@ -0,0 +1,62 @@
+package app.persons;
+
+import java.util.Arrays;
+
+/**
+ * The song listens of a listener that were not yet credited to the artists, the charts and the
+ * listener's own counters. Consecutive listens of the same song, under the same subscription,
+ * are merged into a single event.
+ */
+final class ListenBuffer {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] ordinals = new int[INITIAL_CAPACITY];
+    private int[] listens = new int[INITIAL_CAPACITY];
+    private boolean[] premium = new boolean[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /**
+     * @param ordinal the ordinal of the song listened to
+     * @param delta the number of listens, negative when listens are taken back
+     * @param isPremium true if the listener was premium at the time of the listens
+     */
+    void append(final int ordinal, final int delta, final boolean isPremium) {
+        if (size > 0 && ordinals[size - 1] == ordinal && premium[size - 1] == isPremium) {
+            listens[size - 1] += delta;
+            return;
+        }
+        if (size == ordinals.length) {
+            ordinals = Arrays.copyOf(ordinals, size * 2);
+            listens = Arrays.copyOf(listens, size * 2);
+            premium = Arrays.copyOf(premium, size * 2);
+        }
+        ordinals[size] = ordinal;
+        listens[size] = delta;
+        premium[size] = isPremium;
+        ++size;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int ordinalAt(final int position) {
+        return ordinals[position];
+    }
+
+    int listensAt(final int position) {
+        return listens[position];
+    }
+
+    boolean isPremiumAt(final int position) {
+        return premium[position];
+    }
+
+    void clear() {
+        size = 0;
+    }
+}
@@ -3,6 +3,7 @@ package app.persons;
 import app.audio.AudioItem;
 import app.audio.Episode;
 import app.audio.LibrarySingleton;
+import app.audio.OrdinalCounts;
 import app.audio.Playlist;
 import app.audio.Podcast;
 import app.audio.Song;
@@ -14,6 +15,7 @@ import app.output.results.WrappedResult;
 
 import app.player.AudioPlayer;
 import app.player.Page;
+import app.ranking.IntTopK;
 import fileio.input.UserInput;
 import lombok.Getter;
 import lombok.Setter;
@@ -25,9 +27,7 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Stack;
-import java.util.stream.Collectors;
-
-import static java.util.Map.Entry;
+import java.util.function.ObjIntConsumer;
 
 @Getter @Setter
 public final class Listener extends User {
@@ -35,10 +35,13 @@ public final class Listener extends User {
     private final ArrayList<Song> likedSongs;
     private final HashMap<Podcast, Integer> podcastListenTime;
 
-    private final HashMap<Song, Integer> songListens;
-    private final HashMap<Episode, Integer> episodeListens;
-    private HashMap<Song, Integer> premiumSongsRevenueShare;
-    private HashMap<Song, Integer> adsSongsRevenueShare;
+    private final OrdinalCounts songListens;
+    private final ListenBuffer bufferedListens;
+    private boolean listensQueued;
+    private final OrdinalCounts episodeListens;
+    private final HashMap<Podcast, int[]> pendingEpisodeListens;
+    private OrdinalCounts premiumSongsRevenueShare;
+    private OrdinalCounts adsSongsRevenueShare;
     private ArrayList<String> boughtMerch;
     private double revenue;
     private int premiumRevenueSongs;
@@ -62,10 +65,12 @@ public final class Listener extends User {
         likedSongs = new ArrayList<>();
 
         podcastListenTime = new HashMap<>();
-        songListens = new HashMap<>();
-        episodeListens = new HashMap<>();
-        premiumSongsRevenueShare = new HashMap<>();
-        adsSongsRevenueShare = new HashMap<>();
+        songListens = new OrdinalCounts();
+        bufferedListens = new ListenBuffer();
+        episodeListens = new OrdinalCounts();
+        pendingEpisodeListens = new HashMap<>();
+        premiumSongsRevenueShare = new OrdinalCounts();
+        adsSongsRevenueShare = new OrdinalCounts();
         premiumRevenueSongs = 0;
         adsRevenueSongs = 0;
 
@@ -85,10 +90,12 @@ public final class Listener extends User {
         this.likedSongs = new ArrayList<>();
 
         podcastListenTime = new HashMap<>();
-        songListens = new HashMap<>();
-        episodeListens = new HashMap<>();
-        premiumSongsRevenueShare = new HashMap<>();
-        adsSongsRevenueShare = new HashMap<>();
+        songListens = new OrdinalCounts();
+        bufferedListens = new ListenBuffer();
+        episodeListens = new OrdinalCounts();
+        pendingEpisodeListens = new HashMap<>();
+        premiumSongsRevenueShare = new OrdinalCounts();
+        adsSongsRevenueShare = new OrdinalCounts();
         premiumRevenueSongs = 0;
         adsRevenueSongs = 0;
 
@@ -160,6 +167,9 @@ public final class Listener extends User {
         } else {
             playlist.setVisibility("public");
         }
+        LibrarySingleton library = LibrarySingleton.getInstance();
+        library.getPublicPlaylistIndex().updateVisibility(playlist);
+        library.getSearchCache().invalidate("playlist");
         result.setMessage("Visibility status updated successfully to "
                 + playlist.getVisibility() + ".");
         return result;
@@ -198,8 +208,9 @@ public final class Listener extends User {
     public String delete(final Command command) {
         LibrarySingleton library = LibrarySingleton.getInstance();
         for (AudioPlayer player: library.getAudioPlayers().values()) {
-            player.setCurrentFile(player.updateStatus(command));
-            if (player.getCurrentItem() == null) {
+            player.updateIfDue(command);
+            if (player.getCurrentItem() == null
+                    || !library.getPlayerIndex().involves(player, getUsername())) {
                 continue;
             }
             try {
@@ -209,37 +220,75 @@ public final class Listener extends User {
             } catch (Exception ignored) { }
         }
         library.getListeners().remove(this);
-        library.getAudioPlayers().remove(getUsername());
+        library.flushListens();
+        library.getUserDirectory().remove(getUsername());
+        AudioPlayer ownPlayer = library.getAudioPlayers().remove(getUsername());
+        if (ownPlayer != null) {
+            library.getPlayerIndex().remove(ownPlayer);
+            library.getTransitionSchedule().remove(ownPlayer);
+        }
         for (Playlist playlist: playlists) {
-            library.getPlaylists().remove(playlist);
+            library.removePlaylist(playlist);
         }
         for (Playlist playlist: library.getPlaylists()) {
-            playlist.getFollowers().remove(this);
+            if (playlist.getFollowers().remove(this)) {
+                library.getPlaylistChart().change(playlist, -1);
+            }
+        }
+        for (Artist artist: library.getArtists()) {
+            artist.getMerchLedger().removeBuyer(this);
         }
         return getUsername() + " was successfully deleted.";
     }
 
     /**
-     * increase number of listens for given song
+     * increase number of listens for given song. The listens are only buffered, they are
+     * credited by the next flushListens()
      * @param song the given song
      * @param listens the number of listens
      */
     public void addToSongListens(final Song song, final int listens) {
-        Artist artist = LibrarySingleton.getInstance().findArtistByName(song.getArtist());
-        if (artist != null) {
-            artist.setPlays(artist.getPlays() + listens);
+        if (!listensQueued) {
+            listensQueued = true;
+            LibrarySingleton.getInstance().listensBuffered(this);
         }
-        if (premium) {
-            premiumSongsRevenueShare
-                    .put(song, premiumSongsRevenueShare.getOrDefault(song, 0) + listens);
-            premiumRevenueSongs += listens;
-        } else {
-            adsSongsRevenueShare
-                    .put(song, adsSongsRevenueShare.getOrDefault(song, 0) + listens);
-            adsRevenueSongs += listens;
+        bufferedListens.append(song.getOrdinal(), listens, premium);
+    }
+
+    /**
+     * credits the buffered listens to the artists, the charts, the revenue shares and the
+     * listen counters
+     */
+    public void flushListens() {
+        if (bufferedListens.isEmpty()) {
+            return;
         }
+        LibrarySingleton library = LibrarySingleton.getInstance();
+        String artistName = null;
+        Artist artist = null;
+        for (int i = 0; i < bufferedListens.size(); ++i) {
+            int ordinal = bufferedListens.ordinalAt(i);
+            int listens = bufferedListens.listensAt(i);
+            Song song = library.songOf(ordinal);
+            if (artistName == null || !artistName.equals(song.getArtist())) {
+                artistName = song.getArtist();
+                artist = library.findArtistByName(artistName);
+            }
+            if (artist != null) {
+                artist.addPlays(listens);
+            }
+            library.songListened(song, listens);
+            if (bufferedListens.isPremiumAt(i)) {
+                premiumSongsRevenueShare.add(ordinal, listens);
+                premiumRevenueSongs += listens;
+            } else {
+                adsSongsRevenueShare.add(ordinal, listens);
+                adsRevenueSongs += listens;
+            }
 
-        songListens.put(song, songListens.getOrDefault(song, 0) + listens);
+            songListens.add(ordinal, listens);
+        }
+        bufferedListens.clear();
     }
 
     /**
@@ -248,7 +297,79 @@ public final class Listener extends User {
      * @param listens the number of listens
      */
     public void addToEpisodeListens(final Episode episode, final int listens) {
-        episodeListens.put(episode, episodeListens.getOrDefault(episode, 0) + listens);
+        episodeListens.add(episode.getOrdinal(), listens);
+    }
+
+    /**
+     * @return true if the listener listened to any song or episode
+     */
+    public boolean hasListens() {
+        flushListens();
+        foldEpisodeListens();
+        return !songListens.isEmpty() || !episodeListens.isEmpty();
+    }
+
+    /**
+     * passes every song listened to, with its number of listens, without building a map
+     * @param action the action called for every song
+     */
+    public void forEachSongListen(final ObjIntConsumer<Song> action) {
+        flushListens();
+        LibrarySingleton library = LibrarySingleton.getInstance();
+        for (int i = 0; i < songListens.size(); ++i) {
+            action.accept(library.songOf(songListens.ordinalAt(i)), songListens.countAt(i));
+        }
+    }
+
+    /**
+     * passes every episode listened to, with its number of listens, without building a map
+     * @param action the action called for every episode
+     */
+    public void forEachEpisodeListen(final ObjIntConsumer<Episode> action) {
+        foldEpisodeListens();
+        LibrarySingleton library = LibrarySingleton.getInstance();
+        for (int i = 0; i < episodeListens.size(); ++i) {
+            action.accept(library.episodeOf(episodeListens.ordinalAt(i)),
+                    episodeListens.countAt(i));
+        }
+    }
+
+    /**
+     * adds one listen to every episode in a range, in O(1). The listens are kept in a
+     * difference array per podcast until the episode listens are read.
+     * @param podcast the podcast of the episodes
+     * @param from the index of the first episode listened to
+     * @param to the index after the last episode listened to
+     */
+    public void addToEpisodeListens(final Podcast podcast, final int from, final int to) {
+        int[] pending = pendingEpisodeListens.computeIfAbsent(podcast,
+                key -> new int[key.getEpisodes().size() + 1]);
+        pending[from]++;
+        pending[to]--;
+    }
+
+    private void foldEpisodeListens() {
+        for (Map.Entry<Podcast, int[]> entry: pendingEpisodeListens.entrySet()) {
+            ArrayList<Episode> episodes = entry.getKey().getEpisodes();
+            int[] pending = entry.getValue();
+            int listens = 0;
+            for (int i = 0; i < episodes.size(); ++i) {
+                listens += pending[i];
+                if (listens != 0) {
+                    addToEpisodeListens(episodes.get(i), listens);
+                }
+            }
+        }
+        pendingEpisodeListens.clear();
+    }
+
+    /**
+     * @return the number of listens of every episode listened to
+     */
+    public HashMap<Episode, Integer> getEpisodeListens() {
+        HashMap<Episode, Integer> listens = new HashMap<>();
+        forEachEpisodeListen(listens::put);
+        return listens;
     }
 
     @Override
@@ -261,90 +382,52 @@ public final class Listener extends User {
             return result;
         }
 
+        flushListens();
         HashMap<String, Integer> artistListenCounts = new HashMap<>();
         HashMap<String, Integer> genreListenCounts = new HashMap<>();
         HashMap<String, Integer> albumListenCounts = new HashMap<>();
 
-        for (Map.Entry<Song, Integer> entry : songListens.entrySet()) {
-            String artist = entry.getKey().getArtist();
-            String genre = entry.getKey().getGenre();
-            String album = entry.getKey().getAlbum();
-            int listens = entry.getValue();
+        LibrarySingleton library = LibrarySingleton.getInstance();
+        for (int i = 0; i < songListens.size(); ++i) {
+            Song song = library.songOf(songListens.ordinalAt(i));
+            String artist = song.getArtist();
+            String genre = song.getGenre();
+            String album = song.getAlbum();
+            int listens = songListens.countAt(i);
             artistListenCounts.put(artist, artistListenCounts.getOrDefault(artist, 0) + listens);
             genreListenCounts.put(genre, genreListenCounts.getOrDefault(genre, 0) + listens);
             albumListenCounts.put(album, albumListenCounts.getOrDefault(album, 0) + listens);
         }
 
-        LinkedHashMap<String, Integer> top5Artists = artistListenCounts.entrySet().stream()
-                .sorted(Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
-                        .thenComparing(Entry.comparingByKey()))
-                .limit(topSize)
-                .collect(Collectors.toMap(
-                        Entry::getKey,
-                        Entry::getValue,
-                        (e1, e2) -> e1,
-                        LinkedHashMap::new
-                ));
+        LinkedHashMap<String, Integer> top5Artists =
+                IntTopK.topCounts(artistListenCounts, topSize, Comparator.naturalOrder());
 
         result.getResult().put("topArtists", top5Artists);
 
-        LinkedHashMap<String, Integer> top5Genres = genreListenCounts.entrySet().stream()
-                .sorted(Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
-                        .thenComparing(Entry.comparingByKey()))
-                .limit(topSize)
-                .collect(Collectors.toMap(
-                        Entry::getKey,
-                        Entry::getValue,
-                        (e1, e2) -> e1,
-                        LinkedHashMap::new
-                ));
+        LinkedHashMap<String, Integer> top5Genres =
+                IntTopK.topCounts(genreListenCounts, topSize, Comparator.naturalOrder());
 
         result.getResult().put("topGenres", top5Genres);
 
-        Map<String, Integer> top5Songs = songListens.entrySet().stream()
-                .collect(Collectors.toMap(
-                        entry -> entry.getKey().getName(),
-                        Entry::getValue,
-                        Integer::sum,
-                        LinkedHashMap::new
-                ))
-                .entrySet().stream()
-                .sorted(Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
-                        .thenComparing(Entry.comparingByKey()))
-                .limit(topSize)
-                .collect(Collectors.toMap(
-                        Entry::getKey,
-                        Entry::getValue,
-                        Integer::sum,
-                        LinkedHashMap::new
-                ));
+        HashMap<String, Integer> songNameListens = new HashMap<>();
+        for (int i = 0; i < songListens.size(); ++i) {
+            songNameListens.merge(library.songOf(songListens.ordinalAt(i)).getName(),
+                    songListens.countAt(i), Integer::sum);
+        }
+        Map<String, Integer> top5Songs =
+                IntTopK.topCounts(songNameListens, topSize, Comparator.naturalOrder());
 
         result.getResult().put("topSongs", top5Songs);
 
-        LinkedHashMap<String, Integer> top5Albums = albumListenCounts.entrySet().stream()
-                .sorted(Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
-                        .thenComparing(Entry.comparingByKey()))
-                .limit(topSize)
-                .collect(Collectors.toMap(
-                        Entry::getKey,
-                        Entry::getValue,
-                        (e1, e2) -> e1,
-                        LinkedHashMap::new
-                ));
+        LinkedHashMap<String, Integer> top5Albums =
+                IntTopK.topCounts(albumListenCounts, topSize, Comparator.naturalOrder());
 
         result.getResult().put("topAlbums", top5Albums);
 
-        Map<String, Integer> top5Episodes = episodeListens.entrySet().stream()
-                .sorted(Entry.<Episode, Integer>comparingByValue(Comparator.reverseOrder())
-                        .thenComparing(Entry.comparingByKey(Comparator
-                                .comparing(Episode::getName))))
-                .limit(topSize)
-                .collect(Collectors.toMap(
-                        entry -> entry.getKey().getName(),
-                        Entry::getValue,
-                        (e1, e2) -> e1,
-                        LinkedHashMap::new
-                ));
+        Map<String, Integer> top5Episodes = new LinkedHashMap<>();
+        IntTopK.topCounts(getEpisodeListens(), topSize, Comparator.comparing(Episode::getName))
+                .forEach((episode, listens) ->
+                        top5Episodes.putIfAbsent(episode.getName(), listens));
 
         result.getResult().put("topEpisodes", top5Episodes);
         return result;
@@ -354,17 +437,20 @@ public final class Listener extends User {
      * give the accumulated money to the listened artists
      */
     public void splitMoney() {
-        HashMap<Song, Integer> songsRevenueShare = premium
+        flushListens();
+        OrdinalCounts songsRevenueShare = premium
                 ? premiumSongsRevenueShare : adsSongsRevenueShare;
         int revenueSongs = premium ? premiumRevenueSongs : adsRevenueSongs;
-        songsRevenueShare.forEach((song, share) -> {
-            double songRevenue = revenue * share / revenueSongs;
-            Artist artist = LibrarySingleton.getInstance().findArtistByName(song.getArtist());
+        LibrarySingleton library = LibrarySingleton.getInstance();
+        for (int i = 0; i < songsRevenueShare.size(); ++i) {
+            Song song = library.songOf(songsRevenueShare.ordinalAt(i));
+            Artist artist = library.findArtistByName(song.getArtist());
 
             if (artist != null) {
-                artist.getSongProfits().merge(song.getName(), songRevenue, Double::sum);
+                artist.addStreamRevenue(song.getName(),
+                        revenue * songsRevenueShare.countAt(i) / revenueSongs);
             }
-        });
+        }
         songsRevenueShare.clear();
 
         if (premium) {
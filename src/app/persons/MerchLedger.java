@@ -0,0 +1,65 @@
+package app.persons;
+
+import app.audio.RankedSet;
+import app.player.Merch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * The merch sales of an artist: units sold and revenue per merch item, and the listeners
+ * ranked by the units they bought. Both are updated at every purchase, so they are read
+ * without going through the purchases again.
+ */
+public final class MerchLedger {
+    /**
+     * units sold and revenue of every merch item sold at least once, by merch name
+     */
+    private final HashMap<String, long[]> salesByMerch = new HashMap<>();
+    private final RankedSet<Listener> buyers = new RankedSet<>();
+
+    /**
+     * @param merch the merch bought
+     * @param buyer the listener who bought it
+     */
+    public void record(final Merch merch, final Listener buyer) {
+        long[] sales = salesByMerch.computeIfAbsent(merch.getName(), name -> new long[2]);
+        sales[0]++;
+        sales[1] += merch.getPrice();
+        buyers.add(buyer, 0);
+        buyers.change(buyer, 1);
+    }
+
+    /**
+     * @param buyer a deleted listener, no longer ranked among the buyers
+     */
+    public void removeBuyer(final Listener buyer) {
+        buyers.remove(buyer);
+    }
+
+    /**
+     * @param merchName the name of a merch item
+     * @return the number of units sold
+     */
+    public long unitsSold(final String merchName) {
+        long[] sales = salesByMerch.get(merchName);
+        return sales == null ? 0 : sales[0];
+    }
+
+    /**
+     * @param merchName the name of a merch item
+     * @return the revenue brought by the item
+     */
+    public long revenueOf(final String merchName) {
+        long[] sales = salesByMerch.get(merchName);
+        return sales == null ? 0 : sales[1];
+    }
+
+    /**
+     * @param size the maximum number of buyers returned
+     * @return the listeners who bought the most units, first buyers first on ties, in O(size)
+     */
+    public ArrayList<Listener> topBuyers(final int size) {
+        return buyers.top(size);
+    }
+}
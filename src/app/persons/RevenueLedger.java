@@ -0,0 +1,84 @@
+package app.persons;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The stream revenue of an artist, per song. Every settlement is added to the revenue of its
+ * song as it comes, and the total is the sum of the songs, so both are exactly the figures the
+ * end of program report is expected to print. The total is only summed again after a credit,
+ * and the most profitable song is kept along, searched again only when its revenue drops.
+ */
+public final class RevenueLedger {
+    private static final double CENTS = 100.0;
+
+    private final HashMap<String, Double> songProfits = new HashMap<>();
+    private double total = 0;
+    private boolean totalStale = false;
+    private String bestSong = null;
+    private double bestProfit = 0;
+    private boolean bestStale = false;
+
+    /**
+     * @param songName the name of the song listened to
+     * @param amount the revenue of the song
+     */
+    public void credit(final String songName, final double amount) {
+        double profit = songProfits.merge(songName, amount, Double::sum);
+        totalStale = true;
+        if (songName.equals(bestSong)) {
+            if (amount < 0 || profit == 0.0) {
+                bestStale = true;
+            } else {
+                bestProfit = profit;
+            }
+        } else if (!bestStale && beatsBest(songName, profit)) {
+            bestSong = songName;
+            bestProfit = profit;
+        }
+    }
+
+    private boolean beatsBest(final String songName, final double profit) {
+        if (profit == 0.0) {
+            return false;
+        }
+        return bestSong == null || profit > bestProfit
+                || profit == bestProfit && songName.compareTo(bestSong) < 0;
+    }
+
+    /**
+     * @return the total revenue, the sum of the revenues of the songs
+     */
+    public double getTotal() {
+        if (totalStale) {
+            total = songProfits.values().stream().mapToDouble(Double::doubleValue).sum();
+            totalStale = false;
+        }
+        return total;
+    }
+
+    /**
+     * @return the total revenue, rounded to cents
+     */
+    public double roundedTotal() {
+        return Math.round(getTotal() * CENTS) / CENTS;
+    }
+
+    /**
+     * @return the name of the song with the largest revenue, the smallest name on ties, or
+     * "N/A" if no song brought any revenue
+     */
+    public String mostProfitableSong() {
+        if (bestStale) {
+            bestSong = null;
+            for (Map.Entry<String, Double> entry: songProfits.entrySet()) {
+                if (beatsBest(entry.getKey(), entry.getValue())) {
+                    bestSong = entry.getKey();
+                    bestProfit = entry.getValue();
+                }
+            }
+            bestStale = false;
+        }
+        return bestSong == null ? "N/A" : bestSong;
+    }
+}
@@ -0,0 +1,94 @@
+package app.persons;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.TreeSet;
+
+/**
+ * The artists that sold merch or were listened to, by total revenue, highest first; equal
+ * revenues are ordered by name. The artists whose revenue or plays changed are ranked again
+ * when the ranking is read, so the end of program report only walks it.
+ */
+public final class RevenueRanking {
+    private static final class Rank {
+        private final Artist artist;
+        private final double revenue;
+
+        private Rank(final Artist artist, final double revenue) {
+            this.artist = artist;
+            this.revenue = revenue;
+        }
+    }
+
+    private final TreeSet<Rank> ranking = new TreeSet<>((rank1, rank2) -> {
+        int byRevenue = Double.compare(rank2.revenue, rank1.revenue);
+        return byRevenue != 0 ? byRevenue
+                : rank1.artist.getName().compareTo(rank2.artist.getName());
+    });
+
+    /**
+     * the rank of every artist in the library, null for the artists not paid yet
+     */
+    private final HashMap<Artist, Rank> ranks = new HashMap<>();
+    private final LinkedHashSet<Artist> stale = new LinkedHashSet<>();
+
+    /**
+     * @param artist the artist added to the library
+     */
+    public void add(final Artist artist) {
+        ranks.putIfAbsent(artist, null);
+        update(artist);
+    }
+
+    /**
+     * marks the artist to be ranked again, after its revenue or its plays changed. Artists no
+     * longer in the library are ignored.
+     * @param artist the given artist
+     */
+    public void update(final Artist artist) {
+        if (ranks.containsKey(artist)) {
+            stale.add(artist);
+        }
+    }
+
+    private void rank(final Artist artist) {
+        Rank old = ranks.put(artist, null);
+        if (old != null) {
+            ranking.remove(old);
+        }
+        if (!artist.isPaid()) {
+            return;
+        }
+        Rank rank = new Rank(artist,
+                artist.getMerchRevenue() + artist.getStreamsLedger().getTotal());
+        ranks.put(artist, rank);
+        ranking.add(rank);
+    }
+
+    /**
+     * @param artist the artist removed from the library
+     */
+    public void remove(final Artist artist) {
+        stale.remove(artist);
+        Rank rank = ranks.remove(artist);
+        if (rank != null) {
+            ranking.remove(rank);
+        }
+    }
+
+    /**
+     * @return the ranked artists, highest revenue first
+     */
+    public ArrayList<Artist> artists() {
+        for (Artist artist: stale) {
+            rank(artist);
+        }
+        stale.clear();
+        ArrayList<Artist> artists = new ArrayList<>(ranking.size());
+        for (Rank rank: ranking) {
+            artists.add(rank.artist);
+        }
+        return artists;
+    }
+}
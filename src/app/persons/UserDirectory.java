@@ -0,0 +1,84 @@
+package app.persons;
+
+import java.util.HashMap;
+
+public final class UserDirectory {
+    public enum Role {
+        LISTENER,
+        ARTIST,
+        HOST
+    }
+
+    private static final class Entry {
+        private final User user;
+        private final Role role;
+        private final int ordinal;
+
+        private Entry(final User user, final Role role, final int ordinal) {
+            this.user = user;
+            this.role = role;
+            this.ordinal = ordinal;
+        }
+    }
+
+    private final HashMap<String, Entry> entries = new HashMap<>();
+    private int nextOrdinal = 0;
+
+    /**
+     * indexes the user under its username.
+     * NOTE: the username should be checked for availability before calling this function
+     * @param user the given user
+     * @param role the role of the user
+     */
+    public void add(final User user, final Role role) {
+        entries.put(user.getUsername(), new Entry(user, role, nextOrdinal++));
+    }
+
+    /**
+     * @param username the username of the removed user
+     */
+    public void remove(final String username) {
+        entries.remove(username);
+    }
+
+    /**
+     * @param username a given username
+     * @return true if a user with the given username is indexed
+     */
+    public boolean contains(final String username) {
+        return entries.containsKey(username);
+    }
+
+    /**
+     * @param username the given username
+     * @return the user with the given username, or null if none
+     */
+    public User find(final String username) {
+        Entry entry = entries.get(username);
+        return entry == null ? null : entry.user;
+    }
+
+    /**
+     * @param username the given username
+     * @param role the expected role
+     * @return the user with the given username and role, or null if none
+     */
+    public User find(final String username, final Role role) {
+        Entry entry = entries.get(username);
+        if (entry == null || entry.role != role) {
+            return null;
+        }
+        return entry.user;
+    }
+
+    /**
+     * users are numbered in the order they were added, which is also the order
+     * of the listener, artist and host lists
+     * @param username the given username
+     * @return the ordinal of the user, or -1 if there is no such user
+     */
+    public int ordinalOf(final String username) {
+        Entry entry = entries.get(username);
+        return entry == null ? -1 : entry.ordinal;
+    }
+}
@@ -14,6 +14,7 @@ import app.persons.Artist;
 import app.persons.Host;
 import app.persons.Listener;
 import app.persons.User;
+import app.ranking.IntTopK;
 
 import fileio.input.EpisodeInput;
 import fileio.input.SongInput;
@@ -22,16 +23,13 @@ import lombok.Setter;
 import main.Command;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
 import java.util.Stack;
-import java.util.stream.Collectors;
-
-import static java.util.Map.Entry;
 
 @Getter @Setter
 public final class AudioPlayer {
@@ -44,6 +42,8 @@ public final class AudioPlayer {
     private Status status;
     private int trackId;
     private int seed;
+    private PlayOrder shuffleOrder;
+    private SteadyState steadyState;
     private boolean adBreakNext;
     private Memento memento;
 
@@ -87,7 +87,7 @@ public final class AudioPlayer {
         status.setRepeat("No Repeat");
         status.setPaused(false);
         status.setShuffle(false);
-        currentItem = (AudioItem) searchBar.getSelection();
+        setCurrentItem((AudioItem) searchBar.getSelection());
         playTimestamp = command.getTimestamp();
         elapsedTime = 0;
         trackId = 0;
@@ -142,6 +142,25 @@ public final class AudioPlayer {
      * @return the currently played file
      */
     public AudioFile updateStatus(final Command command) {
+        AudioFile file = simulate(command);
+        LibrarySingleton.getInstance().getTransitionSchedule()
+                .updated(this, command.getTimestamp());
+        return file;
+    }
+
+    /**
+     * updates the player for an operation over every player, unless its clock is all that
+     * would change
+     * @param command the given command
+     */
+    public void updateIfDue(final Command command) {
+        if (LibrarySingleton.getInstance().getTransitionSchedule()
+                .isDue(this, command.getTimestamp())) {
+            currentFile = updateStatus(command);
+        }
+    }
+
+    private AudioFile simulate(final Command command) {
         if (user == null) {
             return null;
         }
@@ -161,7 +180,12 @@ public final class AudioPlayer {
             playTimestamp = command.getTimestamp();
         }
 
-        return currentItem.play(this, command);
+        if (steadyState != null && steadyState.holds(this)) {
+            return steadyState.replay(this);
+        }
+        AudioFile file = currentItem.play(this, command);
+        steadyState = SteadyState.after(this, file);
+        return file;
     }
 
     /**
@@ -180,7 +204,7 @@ public final class AudioPlayer {
         currentFile = updateStatus(command);
 
         if (currentFile == null) {
-            currentItem = null;
+            setCurrentItem(null);
         }
         result.setStats(status);
         return result;
@@ -216,16 +240,16 @@ public final class AudioPlayer {
             return result;
         }
 
-        ArrayList<Song> songs = listener.getPlaylists().get(playlistId - 1).getSongs();
-        for (Song song : songs) {
+        Playlist playlist = listener.getPlaylists().get(playlistId - 1);
+        for (Song song : playlist.getSongs()) {
             if (song.getName().equals(currentFile.getName())) {
-                songs.remove(song);
+                playlist.removeSong(song);
                 result.setMessage("Successfully removed from playlist.");
                 return result;
             }
         }
 
-        songs.add(LibrarySingleton.getInstance().findSongByName(currentFile.getName()));
+        playlist.addSong(LibrarySingleton.getInstance().findSongByName(currentFile.getName()));
         result.setMessage("Successfully added to playlist.");
         return result;
     }
@@ -436,19 +460,27 @@ public final class AudioPlayer {
      */
     public int getPrevShuffledTrack() {
         int id = trackId;
-        ArrayList<Integer> positions = new ArrayList<>();
-        for (int i = 0; i < ((Playlist) currentItem).getSongs().size(); ++i) {
-            positions.add(i, i);
-        }
-        Collections.shuffle(positions, new Random(seed));
-        if (positions.get(0) == id) {
+        PlayOrder positions = getShuffleOrder(((Playlist) currentItem).getSongs().size());
+        if (positions.position(0) == id) {
             return id;
         }
         int shuffledId = positions.indexOf(id);
         if (shuffledId == -1) {
             return 0;
         }
-        return positions.get(shuffledId - 1);
+        return positions.position(shuffledId - 1);
+    }
+
+    /**
+     * the shuffled order is cached, since it only depends on the seed and on the size
+     * @param size the number of songs of the loaded collection
+     * @return the order the songs are played in while shuffle is active
+     */
+    public PlayOrder getShuffleOrder(final int size) {
+        if (shuffleOrder == null || !shuffleOrder.isShuffleOf(size, seed)) {
+            shuffleOrder = PlayOrder.shuffled(size, seed);
+        }
+        return shuffleOrder;
     }
 
     /**
@@ -527,16 +559,16 @@ public final class AudioPlayer {
             result.setMessage("You cannot follow or unfollow your own playlist.");
             return result;
         }
-        ArrayList<Listener> followers = playlist.getFollowers();
-        for (Listener follower : followers) {
-            if (user.equals(follower)) {
-                result.setMessage("Playlist unfollowed successfully.");
-                followers.remove(follower);
-                return result;
-            }
+        LinkedHashSet<Listener> followers = playlist.getFollowers();
+        LibrarySingleton library = LibrarySingleton.getInstance();
+        if (followers.remove(user)) {
+            result.setMessage("Playlist unfollowed successfully.");
+            library.getPlaylistChart().change(playlist, -1);
+            return result;
         }
         result.setMessage("Playlist followed successfully.");
         followers.add((Listener) user);
+        library.getPlaylistChart().change(playlist, 1);
         return result;
     }
 
@@ -639,7 +671,7 @@ public final class AudioPlayer {
         status.setRepeat("No Repeat");
         status.setPaused(false);
         status.setShuffle(false);
-        currentItem = listener.getRecommendation();
+        setCurrentItem(listener.getRecommendation());
         playTimestamp = command.getTimestamp();
         elapsedTime = 0;
         trackId = 0;
@@ -725,19 +757,19 @@ public final class AudioPlayer {
             }
         }
 
-        ArrayList<Song> librarySongs = LibrarySingleton.getInstance().getSongs();
+        LibrarySingleton library = LibrarySingleton.getInstance();
         Album album = new Album(command);
         for (SongInput songInput : command.getSongs()) {
             Song song = new Song(songInput);
-            album.getSongs().add(song);
-            librarySongs.add(song);
+            album.addSong(song);
+            library.addSong(song);
         }
         artist.getAlbums().add(album);
         for (Listener subscriber: artist.getSubscribers()) {
             subscriber.getNotifications().add(new Notification("New Album",
                     "New Album from " + artist.getUsername() + "."));
         }
-        LibrarySingleton.getInstance().getAlbums().add(album);
+        library.addAlbum(album);
         result.setMessage(command.getUsername() + " has added new album successfully.");
         return result;
     }
@@ -748,12 +780,7 @@ public final class AudioPlayer {
      */
     public boolean eventAlreadyExists(final String eventName) {
         Artist artist = (Artist) user;
-        for (Event event : artist.getEvents()) {
-            if (event.getName().equals(eventName)) {
-                return true;
-            }
-        }
-        return false;
+        return artist.getEvents().containsKey(eventName);
     }
 
     /**
@@ -787,7 +814,7 @@ public final class AudioPlayer {
         }
         Event event = new Event(command);
         Artist artist = (Artist) user;
-        artist.getEvents().add(event);
+        artist.getEvents().put(event.getName(), event);
         for (Listener subscriber: artist.getSubscribers()) {
             subscriber.getNotifications().add(new Notification("New Event",
                     "New Event from " + artist.getName() + "."));
@@ -827,7 +854,7 @@ public final class AudioPlayer {
             return result;
         }
         Merch merch = new Merch(command);
-        artist.getMerchItems().add(merch);
+        artist.getMerchItems().put(merch.getName(), merch);
         for (Listener subscriber: artist.getSubscribers()) {
             subscriber.getNotifications().add(new Notification("New Merchandise",
                     "New Merchandise from " + artist.getName() + "."));
@@ -897,7 +924,7 @@ public final class AudioPlayer {
         }
 
         Podcast podcast = new Podcast(episodeInputs, command.getName(), command.getUsername());
-        LibrarySingleton.getInstance().getPodcasts().add(podcast);
+        LibrarySingleton.getInstance().addPodcast(podcast);
         host.getPodcasts().add(podcast);
         result.setMessage(command.getUsername() + " has added new podcast successfully.");
         return result;
@@ -924,15 +951,13 @@ public final class AudioPlayer {
             return result;
         }
         Host host = (Host) user;
-        for (Announcement announcement : host.getAnnouncements()) {
-            if (announcement.getName().equals(command.getName())) {
-                result.setMessage(command.getUsername()
-                        + " has already added an announcement with this name");
-                return result;
-            }
+        if (host.getAnnouncements().containsKey(command.getName())) {
+            result.setMessage(command.getUsername()
+                    + " has already added an announcement with this name");
+            return result;
         }
         Announcement announcement = new Announcement(command.getName(), command.getDescription());
-        host.getAnnouncements().add(announcement);
+        host.getAnnouncements().put(announcement.getName(), announcement);
         for (Listener subscriber: host.getSubscribers()) {
             subscriber.getNotifications().add(new Notification("New Announcement",
                     "New Announcement from " + host.getName() + "."));
@@ -963,13 +988,10 @@ public final class AudioPlayer {
         }
         Host host = (Host) user;
 
-        for (Announcement announcement : host.getAnnouncements()) {
-            if (announcement.getName().equals(command.getName())) {
-                host.getAnnouncements().remove(announcement);
-                result.setMessage(command.getUsername()
-                        + " has successfully deleted the announcement.");
-                return result;
-            }
+        if (host.getAnnouncements().remove(command.getName()) != null) {
+            result.setMessage(command.getUsername()
+                    + " has successfully deleted the announcement.");
+            return result;
         }
         result.setMessage(command.getUsername() + " has no announcement with the given name.");
         return result;
@@ -1027,11 +1049,12 @@ public final class AudioPlayer {
         Album toBeDeletedAlbum = optionalAlbum.get();
         LibrarySingleton library = LibrarySingleton.getInstance();
         for (AudioPlayer audioPlayer : library.getAudioPlayers().values()) {
-            audioPlayer.setCurrentFile(audioPlayer.updateStatus(command));
+            audioPlayer.updateIfDue(command);
             if (audioPlayer.getCurrentItem() == null) {
                 continue;
             }
-            if (audioPlayer.getCurrentItem().containsSongsFrom(toBeDeletedAlbum)) {
+            if (library.getPlayerIndex().involvesAlbum(audioPlayer, toBeDeletedAlbum.getName())
+                    && audioPlayer.getCurrentItem().containsSongsFrom(toBeDeletedAlbum)) {
                 result.setMessage(command.getUsername() + " can't delete this album.");
                 return result;
             }
@@ -1083,11 +1106,12 @@ public final class AudioPlayer {
 
         LibrarySingleton library = LibrarySingleton.getInstance();
         for (AudioPlayer audioPlayer : library.getAudioPlayers().values()) {
-            audioPlayer.setCurrentFile(audioPlayer.updateStatus(command));
+            audioPlayer.updateIfDue(command);
             if (audioPlayer.getCurrentItem() == null) {
                 continue;
             }
-            if (audioPlayer.getCurrentItem().equals(toBeDeletedPodcast)) {
+            if (library.getPlayerIndex().isLoaded(audioPlayer, toBeDeletedPodcast)
+                    && audioPlayer.getCurrentItem().equals(toBeDeletedPodcast)) {
                 result.setMessage(command.getUsername() + " can't delete this podcast.");
                 return result;
             }
@@ -1120,12 +1144,9 @@ public final class AudioPlayer {
         }
 
         Artist artist = (Artist) user;
-        for (Event event : artist.getEvents()) {
-            if (event.getName().equals(command.getName())) {
-                artist.getEvents().remove(event);
-                result.setMessage(command.getUsername() + " deleted the event successfully.");
-                return result;
-            }
+        if (artist.getEvents().remove(command.getName()) != null) {
+            result.setMessage(command.getUsername() + " deleted the event successfully.");
+            return result;
         }
 
         result.setMessage(command.getUsername() + " doesn't have an event with the given name");
@@ -1155,13 +1176,13 @@ public final class AudioPlayer {
         }
 
         Artist artist = (Artist) listener.getCurrentPage().getPageOwner();
-        for (Merch merch : artist.getMerchItems()) {
-            if (merch.getName().equals(command.getName())) {
-                artist.setMerchRevenue(artist.getMerchRevenue() + merch.getPrice());
-                listener.getBoughtMerch().add(merch.getName());
-                result.setMessage(listener.getUsername() + " has added new merch successfully.");
-                return result;
-            }
+        Merch merch = artist.getMerchItems().get(command.getName());
+        if (merch != null) {
+            artist.addMerchRevenue(merch.getPrice());
+            artist.getMerchLedger().record(merch, listener);
+            listener.getBoughtMerch().add(merch.getName());
+            result.setMessage(listener.getUsername() + " has added new merch successfully.");
+            return result;
         }
 
         result.setMessage("The merch " + command.getName() + " doesn't exist.");
@@ -1251,6 +1272,22 @@ public final class AudioPlayer {
     }
 
 
+    /**
+     * @param currentItem the item loaded in the player
+     */
+    public void setCurrentItem(final AudioItem currentItem) {
+        this.currentItem = currentItem;
+        LibrarySingleton.getInstance().getPlayerIndex().update(this);
+    }
+
+    /**
+     * @param memento the state restored after an ad break
+     */
+    public void setMemento(final Memento memento) {
+        this.memento = memento;
+        LibrarySingleton.getInstance().getPlayerIndex().update(this);
+    }
+
     /**
      * take a snapshot of the player
      * @return a new memento of the current state
@@ -1264,7 +1301,7 @@ public final class AudioPlayer {
      */
     public void restore() {
         status = memento.getStatus();
-        currentItem = memento.getCurrentItem();
+        setCurrentItem(memento.getCurrentItem());
     }
 
     @Getter
@@ -1358,6 +1395,23 @@ public final class AudioPlayer {
         return result;
     }
 
+    /**
+     * @param songs the given songs
+     * @param genre a given genre
+     * @param size the maximum number of songs returned
+     * @return the most liked songs of the genre, in the order of the given songs on ties
+     */
+    private static ArrayList<Song> mostLikedSongs(final ArrayList<Song> songs,
+                                                  final String genre, final int size) {
+        IntTopK<Song> top = new IntTopK<>(size);
+        for (Song song: songs) {
+            if (song.getGenre().equals(genre)) {
+                top.offer(song, song.getLikes());
+            }
+        }
+        return top.result();
+    }
+
     /**
      * update the recommendations of the listener
      * @param command the given command
@@ -1428,32 +1482,21 @@ public final class AudioPlayer {
                     genreListenCounts.put(genre, genreListenCounts.getOrDefault(genre, 0) + 1);
                 }
 
-                ArrayList<String> top3Genres = genreListenCounts.entrySet().stream()
-                        .sorted(Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
-                                .thenComparing(Entry.comparingByKey()))
-                        .limit(topGenreSize)
-                        .map(Entry::getKey)
-                        .collect(Collectors.toCollection(ArrayList::new));
-
-                ArrayList<Song> playlistSongs = usedSongs.stream()
-                        .filter(song -> song.getGenre().equals(top3Genres.get(0)))
-                        .sorted(Comparator.comparingInt(Song::getLikes).reversed())
-                        .limit(topSize)
-                        .collect(Collectors.toCollection(ArrayList::new));
+                ArrayList<String> top3Genres = new ArrayList<>(IntTopK.topCounts(
+                        genreListenCounts, topGenreSize, Comparator.naturalOrder()).keySet());
 
+                // without any playlist or liked song there is no genre to pick from,
+                // which is answered like any other empty recommendation
+                ArrayList<Song> playlistSongs = new ArrayList<>();
+                if (!top3Genres.isEmpty()) {
+                    playlistSongs.addAll(mostLikedSongs(usedSongs, top3Genres.get(0), topSize));
+                }
                 if (top3Genres.size() > 1) {
-                    playlistSongs.addAll(usedSongs.stream()
-                            .filter(song -> song.getGenre().equals(top3Genres.get(1)))
-                            .sorted(Comparator.comparingInt(Song::getLikes).reversed())
-                            .limit(topGenreSize)
-                            .collect(Collectors.toCollection(ArrayList::new)));
+                    playlistSongs.addAll(mostLikedSongs(usedSongs, top3Genres.get(1),
+                            topGenreSize));
                 }
                 if (top3Genres.size() == topGenreSize) {
-                    playlistSongs.addAll(usedSongs.stream()
-                            .filter(song -> song.getGenre().equals(top3Genres.get(2)))
-                            .sorted(Comparator.comparingInt(Song::getLikes).reversed())
-                            .limit(2)
-                            .collect(Collectors.toCollection(ArrayList::new)));
+                    playlistSongs.addAll(mostLikedSongs(usedSongs, top3Genres.get(2), 2));
                 }
 
                 if (playlistSongs.isEmpty()) {
@@ -1479,21 +1522,15 @@ public final class AudioPlayer {
                         fansListenCounts.put(fan, listenCounter);
                     }
                 }
-                ArrayList<Listener> top5Fans = fansListenCounts.entrySet().stream()
-                        .sorted(Entry.<Listener, Integer>comparingByValue().reversed()
-                                .thenComparing(entry -> entry.getKey().getUsername()))
-                        .limit(topSize)
-                        .map(Entry::getKey)
-                        .collect(Collectors.toCollection(ArrayList::new));
+                ArrayList<Listener> top5Fans = new ArrayList<>(IntTopK.topCounts(
+                        fansListenCounts, topSize, Comparator.comparing(Listener::getUsername))
+                        .keySet());
 
                 ArrayList<Song> fanSongs = new ArrayList<>();
 
                 top5Fans.forEach(fan ->
-                        fanSongs.addAll(fan.getLikedSongs().stream()
-                                .sorted(Comparator.comparingInt(Song::getLikes).reversed())
-                                .limit(topSize)
-                                .collect(Collectors.toCollection(ArrayList::new))
-                        )
+                        fanSongs.addAll(IntTopK.select(fan.getLikedSongs(), topSize,
+                                Song::getLikes))
                 );
 
                 if (fanSongs.isEmpty()) {
@@ -1515,14 +1552,13 @@ public final class AudioPlayer {
     }
 
     private static int getFanListens(final Listener listener, final Artist artist) {
-        int listenCounter = 0;
-        for (Map.Entry<Song, Integer> entry : listener.getSongListens().entrySet()) {
-            if (entry.getKey().getArtist().equals(artist.getUsername())) {
-                int listens = entry.getValue();
-                listenCounter += listens;
+        int[] listenCounter = {0};
+        listener.forEachSongListen((song, listens) -> {
+            if (song.getArtist().equals(artist.getUsername())) {
+                listenCounter[0] += listens;
             }
-        }
-        return listenCounter;
+        });
+        return listenCounter[0];
     }
 
 
@@ -10,6 +10,7 @@ import app.persons.Artist;
 import app.persons.Host;
 import app.persons.Listener;
 import app.persons.User;
+import app.ranking.IntTopK;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -46,10 +47,10 @@ public final class Page {
      */
     public void generateHomePage() {
         Listener listener = (Listener) pageOwner;
-        ArrayList<Song> likedSongs = new ArrayList<>(listener.getLikedSongs());
-        likedSongs.sort((song1, song2) -> Integer.compare(song2.getLikes(), song1.getLikes()));
         final int maxSize = 5;
-        int size = Math.min(likedSongs.size(), maxSize);
+        ArrayList<Song> likedSongs =
+                IntTopK.select(listener.getLikedSongs(), maxSize, Song::getLikes);
+        int size = likedSongs.size();
         StringBuilder contentBuilder = new StringBuilder("Liked songs:\n\t[");
         for (int i = 0; i < size; ++i) {
             if (i != 0) {
@@ -158,24 +159,26 @@ public final class Page {
             contentBuilder.append(albums.get(i).getName());
         }
         contentBuilder.append("]\n\nMerch:\n\t[");
-        ArrayList<Merch> merchItems = artist.getMerchItems();
-        for (int i = 0; i < merchItems.size(); ++i) {
-            if (i != 0) {
+        boolean first = true;
+        for (Merch merch: artist.getMerchItems().values()) {
+            if (!first) {
                 contentBuilder.append(", ");
             }
-            contentBuilder.append(merchItems.get(i).getName()).append(" - ")
-                    .append(merchItems.get(i).getPrice()).append(":\n\t")
-                    .append(merchItems.get(i).getDescription());
+            first = false;
+            contentBuilder.append(merch.getName()).append(" - ")
+                    .append(merch.getPrice()).append(":\n\t")
+                    .append(merch.getDescription());
         }
         contentBuilder.append("]\n\nEvents:\n\t[");
-        ArrayList<Event> events = artist.getEvents();
-        for (int i = 0; i < events.size(); ++i) {
-            if (i != 0) {
+        first = true;
+        for (Event event: artist.getEvents().values()) {
+            if (!first) {
                 contentBuilder.append(", ");
             }
-            contentBuilder.append(events.get(i).getName()).append(" - ")
-                    .append(events.get(i).getDate()).append(":\n\t")
-                    .append(events.get(i).getDescription());
+            first = false;
+            contentBuilder.append(event.getName()).append(" - ")
+                    .append(event.getDate()).append(":\n\t")
+                    .append(event.getDescription());
         }
         contentBuilder.append("]");
         content = contentBuilder.toString();
@@ -216,13 +219,14 @@ public final class Page {
             contentBuilder.append("]\n");
         }
         contentBuilder.append("]\n\nAnnouncements:\n\t[");
-        ArrayList<Announcement> announcements = host.getAnnouncements();
-        for (int i = 0; i < announcements.size(); ++i) {
-            if (i != 0) {
+        boolean first = true;
+        for (Announcement announcement: host.getAnnouncements().values()) {
+            if (!first) {
                 contentBuilder.append(", ");
             }
-            contentBuilder.append(announcements.get(i).getName()).append(":\n\t")
-                    .append(announcements.get(i).getDescription()).append("\n");
+            first = false;
+            contentBuilder.append(announcement.getName()).append(":\n\t")
+                    .append(announcement.getDescription()).append("\n");
         }
         contentBuilder.append("]");
         content = contentBuilder.toString();
@@ -0,0 +1,104 @@
+package app.player;
+
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * The order in which the songs of a collection are played. A shuffled order is the same
+ * permutation Collections.shuffle(positions, new Random(seed)) gives, but it is kept in
+ * primitive arrays together with its inverse, so both directions are looked up in O(1).
+ */
+public final class PlayOrder {
+    private final int size;
+    private final int seed;
+    private final int[] positions;
+    private final int[] indexes;
+
+    private PlayOrder(final int size, final int seed, final int[] positions) {
+        this.size = size;
+        this.seed = seed;
+        this.positions = positions;
+        if (positions == null) {
+            indexes = null;
+            return;
+        }
+        indexes = new int[size];
+        for (int i = 0; i < size; ++i) {
+            indexes[positions[i]] = i;
+        }
+    }
+
+    /**
+     * @param size the number of songs
+     * @return the songs in their own order
+     */
+    public static PlayOrder inOrder(final int size) {
+        return new PlayOrder(size, 0, null);
+    }
+
+    /**
+     * @param size the number of songs
+     * @param seed the seed of the shuffle
+     * @return the songs shuffled exactly like Collections.shuffle does it
+     */
+    public static PlayOrder shuffled(final int size, final int seed) {
+        int[] positions = new int[size];
+        for (int i = 0; i < size; ++i) {
+            positions[i] = i;
+        }
+        Random random = new Random(seed);
+        for (int i = size; i > 1; --i) {
+            int other = random.nextInt(i);
+            int position = positions[i - 1];
+            positions[i - 1] = positions[other];
+            positions[other] = position;
+        }
+        return new PlayOrder(size, seed, positions);
+    }
+
+    /**
+     * @param otherSize a number of songs
+     * @param otherSeed a shuffle seed
+     * @return true if this is the shuffled order of the given size and seed
+     */
+    public boolean isShuffleOf(final int otherSize, final int otherSeed) {
+        return positions != null && size == otherSize && seed == otherSeed;
+    }
+
+    /**
+     * @param other another order
+     * @return true if both orders play the songs the same way
+     */
+    public boolean isSameOrder(final PlayOrder other) {
+        if (other == this) {
+            return true;
+        }
+        if (size != other.size) {
+            return false;
+        }
+        if (positions == null || other.positions == null) {
+            return positions == other.positions;
+        }
+        return seed == other.seed;
+    }
+
+    /**
+     * @param index the index of a song in the play order
+     * @return the position of the song in the collection
+     */
+    public int position(final int index) {
+        Objects.checkIndex(index, size);
+        return positions == null ? index : positions[index];
+    }
+
+    /**
+     * @param position the position of a song in the collection
+     * @return the index of the song in the play order, or -1 if there is no such song
+     */
+    public int indexOf(final int position) {
+        if (position < 0 || position >= size) {
+            return -1;
+        }
+        return indexes == null ? position : indexes[position];
+    }
+}
@@ -0,0 +1,215 @@
+package app.player;
+
+import app.audio.AudioItem;
+import app.audio.Podcast;
+import app.audio.Song;
+import app.audio.SongCollection;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+
+/**
+ * The players whose loaded content involves each user: the owner of the loaded item and, for
+ * song collections, the artists of its songs. The players are also indexed by the albums of
+ * the songs they have loaded, since removing an album matches songs by album name. The item
+ * kept aside during an ad break counts as loaded too. The index may answer with players whose
+ * content ended since they were last updated, so callers still check the player itself. It
+ * never misses a player, so a negative answer lets callers skip the check.
+ */
+public final class PlayerIndex {
+    /**
+     * what the content of a player involves: users and album names
+     */
+    private static final class Involved {
+        private final HashSet<String> users = new HashSet<>();
+        private final HashSet<String> albums = new HashSet<>();
+
+        private void add(final Song song) {
+            users.add(song.getArtist());
+            albums.add(song.getAlbum());
+        }
+
+        private void addAll(final Involved other) {
+            users.addAll(other.users);
+            albums.addAll(other.albums);
+        }
+    }
+
+    /**
+     * what a collection involves, valid as long as its songs version does not change
+     */
+    private static final class CollectionEntry {
+        private final int version;
+        private final Involved involved = new Involved();
+
+        private CollectionEntry(final SongCollection collection) {
+            version = collection.getSongsVersion();
+            involved.users.add(collection.getOwner());
+            for (Song song: collection.getSongs()) {
+                involved.add(song);
+            }
+        }
+    }
+
+    private final HashMap<AudioPlayer, Involved> involvedByPlayer = new HashMap<>();
+    private final HashMap<String, LinkedHashSet<AudioPlayer>> playersByUser = new HashMap<>();
+    private final HashMap<String, LinkedHashSet<AudioPlayer>> playersByAlbum = new HashMap<>();
+    private final HashMap<AudioItem, LinkedHashSet<AudioPlayer>> playersByItem = new HashMap<>();
+    private final HashMap<AudioPlayer, HashSet<AudioItem>> itemsByPlayer = new HashMap<>();
+    private final HashMap<SongCollection, CollectionEntry> collections = new HashMap<>();
+
+    private Involved involvedIn(final AudioItem item) {
+        if (item instanceof SongCollection collection) {
+            CollectionEntry entry = collections.get(collection);
+            if (entry == null || entry.version != collection.getSongsVersion()) {
+                entry = new CollectionEntry(collection);
+                collections.put(collection, entry);
+            }
+            return entry.involved;
+        }
+        Involved involved = new Involved();
+        if (item instanceof Song song) {
+            involved.add(song);
+        } else if (item instanceof Podcast podcast) {
+            involved.users.add(podcast.getOwner());
+        }
+        return involved;
+    }
+
+    private static <K> void link(final HashMap<K, LinkedHashSet<AudioPlayer>> index,
+                                 final K key, final AudioPlayer player) {
+        index.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(player);
+    }
+
+    private static <K> void unlink(final HashMap<K, LinkedHashSet<AudioPlayer>> index,
+                                   final K key, final AudioPlayer player) {
+        LinkedHashSet<AudioPlayer> players = index.get(key);
+        if (players == null) {
+            return;
+        }
+        players.remove(player);
+        if (players.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static <K> boolean contains(final HashMap<K, LinkedHashSet<AudioPlayer>> index,
+                                        final K key, final AudioPlayer player) {
+        LinkedHashSet<AudioPlayer> players = index.get(key);
+        return players != null && players.contains(player);
+    }
+
+    private static <K> ArrayList<AudioPlayer> lookup(
+            final HashMap<K, LinkedHashSet<AudioPlayer>> index, final K key) {
+        LinkedHashSet<AudioPlayer> players = index.get(key);
+        return players == null ? new ArrayList<>() : new ArrayList<>(players);
+    }
+
+    /**
+     * removes the player from the index
+     * @param player the given player
+     */
+    public void remove(final AudioPlayer player) {
+        Involved involved = involvedByPlayer.remove(player);
+        if (involved != null) {
+            for (String user: involved.users) {
+                unlink(playersByUser, user, player);
+            }
+            for (String album: involved.albums) {
+                unlink(playersByAlbum, album, player);
+            }
+        }
+        HashSet<AudioItem> items = itemsByPlayer.remove(player);
+        if (items == null) {
+            return;
+        }
+        for (AudioItem item: items) {
+            unlink(playersByItem, item, player);
+            if (item instanceof SongCollection collection && !playersByItem.containsKey(item)) {
+                collections.remove(collection);
+            }
+        }
+    }
+
+    /**
+     * indexes the player again, after it loaded another item
+     * @param player the given player
+     */
+    public void update(final AudioPlayer player) {
+        remove(player);
+        HashSet<AudioItem> items = new HashSet<>();
+        if (player.getCurrentItem() != null) {
+            items.add(player.getCurrentItem());
+        }
+        if (player.getMemento() != null && player.getMemento().getCurrentItem() != null) {
+            items.add(player.getMemento().getCurrentItem());
+        }
+        if (items.isEmpty()) {
+            return;
+        }
+        Involved involved = new Involved();
+        for (AudioItem item: items) {
+            involved.addAll(involvedIn(item));
+            link(playersByItem, item, player);
+        }
+        for (String user: involved.users) {
+            link(playersByUser, user, player);
+        }
+        for (String album: involved.albums) {
+            link(playersByAlbum, album, player);
+        }
+        itemsByPlayer.put(player, items);
+        involvedByPlayer.put(player, involved);
+    }
+
+    /**
+     * indexes the players of a collection under the artist and album of a song added to it
+     * @param collection the given collection
+     * @param song the song added
+     */
+    public void songAdded(final SongCollection collection, final Song song) {
+        for (AudioPlayer player: playersOf(collection)) {
+            Involved involved = involvedByPlayer.get(player);
+            involved.add(song);
+            link(playersByUser, song.getArtist(), player);
+            link(playersByAlbum, song.getAlbum(), player);
+        }
+    }
+
+    /**
+     * @param item the given item
+     * @return the players the item is loaded in
+     */
+    public ArrayList<AudioPlayer> playersOf(final AudioItem item) {
+        return lookup(playersByItem, item);
+    }
+
+    /**
+     * @param player the given player
+     * @param item the given item
+     * @return false if the item is not loaded in the player
+     */
+    public boolean isLoaded(final AudioPlayer player, final AudioItem item) {
+        return contains(playersByItem, item, player);
+    }
+
+    /**
+     * @param player the given player
+     * @param username the given user
+     * @return false if the content of the player does not involve the user
+     */
+    public boolean involves(final AudioPlayer player, final String username) {
+        return contains(playersByUser, username, player);
+    }
+
+    /**
+     * @param player the given player
+     * @param albumName the name of an album
+     * @return false if the player has no songs of an album with that name loaded
+     */
+    public boolean involvesAlbum(final AudioPlayer player, final String albumName) {
+        return contains(playersByAlbum, albumName, player);
+    }
+}
@@ -2,6 +2,8 @@ package app.player;
 
 import app.audio.LibrarySingleton;
 import app.audio.Playlist;
+import app.audio.PublicPlaylistIndex;
+import app.audio.Song;
 import app.output.results.GeneralResult;
 import app.persons.Artist;
 import app.persons.Listener;
@@ -11,9 +13,13 @@ import main.Command;
 import app.output.results.SearchResult;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
 
 @Getter @Setter
 public final class SearchBar {
+    private static final int MAX_RESULTS = 5;
+
     private String type;
     private Filter filters;
 
@@ -35,9 +41,59 @@ public final class SearchBar {
         filters = command.getFilters();
     }
 
+    /**
+     * adds the candidates that match to the results, stopping at the first full page
+     * @return true if no more results can be added
+     */
+    private boolean collect(final Iterable<? extends Searchable> candidates,
+                            final Predicate<Searchable> matcher) {
+        for (Searchable searchable : candidates) {
+            if (matcher.test(searchable)) {
+                results.add(searchable.getName());
+                resultSearchable.add(searchable);
+            }
+
+            if (results.size() == MAX_RESULTS) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void collectPlaylists(final LibrarySingleton library, final Listener owner,
+                                  final String namePrefix, final Predicate<Searchable> matcher) {
+        String username = owner.getUsername();
+        Predicate<Searchable> othersMatcher = searchable ->
+                !((Playlist) searchable).getOwner().equals(username)
+                && matcher.test(searchable);
+
+        if (namePrefix == null) {
+            if (collect(owner.getPlaylists(), matcher)) {
+                return;
+            }
+        } else if (collect(library.getPlaylistPrefixIndex().matches(namePrefix), searchable ->
+                ((Playlist) searchable).getOwner().equals(username)
+                && matcher.test(searchable))) {
+            return;
+        }
+
+        PublicPlaylistIndex publicPlaylists = library.getPublicPlaylistIndex();
+        String ownerFilter = filters == null ? null : filters.getOwner();
+        if (ownerFilter != null) {
+            int ownerOrdinal = library.getUserDirectory().ordinalOf(ownerFilter);
+            if (ownerOrdinal >= 0) {
+                collect(publicPlaylists.ownedBy(ownerOrdinal), othersMatcher);
+            }
+        } else if (namePrefix != null) {
+            collect(library.getPlaylistPrefixIndex().matches(namePrefix), searchable ->
+                    ((Playlist) searchable).getVisibility().equals("public")
+                    && othersMatcher.test(searchable));
+        } else {
+            collect(publicPlaylists.all(), othersMatcher);
+        }
+    }
+
     private void fetchSearchResults(final Command command) {
-        final int maxSize = 5;
-        ArrayList<Searchable> searchables;
         LibrarySingleton library = LibrarySingleton.getInstance();
         resultSearchable = new ArrayList<>();
         Listener searchListener = library.findListenerByUsername(command.getUsername());
@@ -47,48 +103,53 @@ public final class SearchBar {
             return;
         }
 
-        searchables = switch (type) {
-            case "song" -> new ArrayList<>(library.getSongs());
-            case "playlist" -> new ArrayList<>(searchListener.getPlaylists());
-            case "artist" -> new ArrayList<>(library.getArtists());
-            case "host" -> new ArrayList<>(library.getHosts());
-            case "album" -> {
-                ArrayList<Searchable> albumArrayList = new ArrayList<>();
-                for (Artist artist: library.getArtists()) {
-                    albumArrayList.addAll(artist.getAlbums());
-                }
-                yield albumArrayList;
-            }
-            default -> new ArrayList<>(library.getPodcasts());
-        };
-
-        results = new ArrayList<>();
-        for (Searchable searchable : searchables) {
-            if (searchable.matchesFilter(filters)) {
+        SearchCache cache = library.getSearchCache();
+        List<Object> key = cache.keyOf(type, filters, command.getUsername());
+        ArrayList<Searchable> cached = key == null ? null : cache.get(key);
+        if (cached != null) {
+            results = new ArrayList<>();
+            for (Searchable searchable : cached) {
                 results.add(searchable.getName());
                 resultSearchable.add(searchable);
             }
+            return;
+        }
 
-            if (results.size() == maxSize) {
-                return;
-            }
+        runSearch(library, searchListener);
+        if (key != null) {
+            cache.put(key, resultSearchable);
+        }
+    }
+
+    private void runSearch(final LibrarySingleton library, final Listener searchListener) {
+        String namePrefix = filters == null ? null : filters.getName();
+        Predicate<Searchable> matcher;
+        if (type.equals("song")) {
+            SongFilter songFilter = SongFilter.compile(filters);
+            matcher = searchable -> songFilter.matches((Song) searchable);
+        } else {
+            matcher = searchable -> searchable.matchesFilter(filters);
         }
-        if (type.equals("playlist")) {
-            for (Listener listener : library.getListeners()) {
-                if (listener.getUsername().equals(command.getUsername())) {
-                    continue;
+
+        results = new ArrayList<>();
+        switch (type) {
+            case "song" -> collect(new SongCandidates(library, filters), matcher);
+            case "playlist" -> collectPlaylists(library, searchListener, namePrefix, matcher);
+            case "artist" -> collect(library.getArtists(), matcher);
+            case "host" -> collect(library.getHosts(), matcher);
+            case "album" -> {
+                if (namePrefix != null) {
+                    collect(library.getAlbumPrefixIndex().matches(namePrefix), matcher);
+                    return;
                 }
-                for (Playlist playlist : listener.getPlaylists()) {
-                    if (playlist.getVisibility().equals("public")
-                            && playlist.matchesFilter(filters)) {
-                        results.add(playlist.getName());
-                        resultSearchable.add(playlist);
-                    }
-                    if (results.size() == maxSize) {
+                for (Artist artist: library.getArtists()) {
+                    if (collect(artist.getAlbums(), matcher)) {
                         return;
                     }
                 }
             }
+            default -> collect(namePrefix == null ? library.getPodcasts()
+                    : library.getPodcastPrefixIndex().matches(namePrefix), matcher);
         }
     }
 
@@ -0,0 +1,124 @@
+package app.player;
+
+import app.audio.BitmapIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Results of recent searches, keyed by search type, normalized filters and the version of
+ * the catalog searched. Every change to a catalog bumps its version, so stale entries are
+ * never hit again and are evicted, least recently used first.
+ */
+public final class SearchCache {
+    public static final int DEFAULT_CAPACITY = 1024;
+    private static final int INITIAL_BUCKETS = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final int capacity;
+    private final LinkedHashMap<List<Object>, ArrayList<Searchable>> entries;
+    private final HashMap<String, Integer> versions = new HashMap<>();
+    private long hits = 0;
+    private long misses = 0;
+
+    public SearchCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public SearchCache(final int capacity) {
+        this.capacity = capacity;
+        entries = new LinkedHashMap<>(INITIAL_BUCKETS, LOAD_FACTOR, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                    final Map.Entry<List<Object>, ArrayList<Searchable>> eldest) {
+                return size() > SearchCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * should be called every time a catalog changes
+     * @param type the type of search whose results may have changed
+     */
+    public void invalidate(final String type) {
+        versions.merge(type, 1, Integer::sum);
+    }
+
+    /**
+     * @param type the type of the search
+     * @param filters the filters of the search
+     * @param username the user searching
+     * @return the key of the search, or null if the search can't be cached
+     */
+    public List<Object> keyOf(final String type, final Filter filters, final String username) {
+        if (type == null || filters == null) {
+            return null;
+        }
+        int version = versions.getOrDefault(type, 0);
+        return switch (type) {
+            case "song" -> Arrays.asList(type, version,
+                    filters.getName() == null ? null : filters.getName().toLowerCase(),
+                    filters.getAlbum(), filters.getArtist(),
+                    filters.getGenre() == null ? null
+                            : BitmapIndex.ignoreCaseKey(filters.getGenre()),
+                    filters.getTags() == null ? null : new TreeSet<>(filters.getTags()),
+                    filters.getLyrics() == null ? null : filters.getLyrics().toLowerCase(),
+                    filters.getReleaseYear());
+            case "playlist" -> Arrays.asList(type, version, username,
+                    filters.getName(), filters.getOwner());
+            case "album" -> Arrays.asList(type, version,
+                    filters.getName(), filters.getOwner(), filters.getDescription());
+            case "podcast" -> Arrays.asList(type, version, filters.getName(), filters.getOwner());
+            case "artist", "host" -> Arrays.asList(type, version, filters.getName());
+            default -> null;
+        };
+    }
+
+    /**
+     * @param key the key of a search
+     * @return the results of the search, or null if they are not cached
+     */
+    public ArrayList<Searchable> get(final List<Object> key) {
+        ArrayList<Searchable> results = entries.get(key);
+        if (results == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return results;
+    }
+
+    /**
+     * @param key the key of a search
+     * @param results the results of the search
+     */
+    public void put(final List<Object> key, final ArrayList<Searchable> results) {
+        entries.put(key, new ArrayList<>(results));
+    }
+
+    /**
+     * @return the number of searches answered from the cache
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of searches that had to be run
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the number of cached searches
+     */
+    public int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,113 @@
+package app.player;
+
+import app.audio.BitmapIndex;
+import app.audio.LibrarySingleton;
+import app.audio.OrdinalList;
+import app.audio.OrdinalSet;
+import app.audio.Song;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * The songs that may match a search, in catalog order. Every filter backed by an index
+ * contributes the set of songs it allows; the smallest set drives the iteration and the
+ * others are only probed, so the search can stop as soon as it has enough results.
+ * The candidates still have to be checked against the whole SongFilter.
+ */
+public final class SongCandidates implements Iterable<Song> {
+    private final LibrarySingleton library;
+    private final ArrayList<OrdinalSet> sets = new ArrayList<>();
+
+    public SongCandidates(final LibrarySingleton library, final Filter filters) {
+        this.library = library;
+
+        if (filters.getName() != null) {
+            OrdinalList byName = new OrdinalList();
+            for (Song song: library.getSongPrefixIndex()
+                    .matches(filters.getName().toLowerCase())) {
+                byName.append(song.getOrdinal());
+            }
+            sets.add(byName);
+        }
+        if (filters.getLyrics() != null) {
+            OrdinalList byLyrics =
+                    library.getLyricsIndex().candidates(filters.getLyrics().toLowerCase());
+            if (byLyrics != null) {
+                sets.add(byLyrics);
+            }
+        }
+        if (filters.getAlbum() != null) {
+            sets.add(library.getAlbumBitmaps().get(filters.getAlbum()));
+        }
+        if (filters.getArtist() != null) {
+            sets.add(library.getArtistBitmaps().get(filters.getArtist()));
+        }
+        if (filters.getGenre() != null) {
+            sets.add(library.getGenreBitmaps().get(BitmapIndex.ignoreCaseKey(filters.getGenre())));
+        }
+        if (filters.getTags() != null) {
+            for (String tag: filters.getTags()) {
+                sets.add(library.getTagBitmaps().get(tag));
+            }
+        }
+        if (filters.getReleaseYear() != null) {
+            sets.add(releasedIn(library, filters.getReleaseYear()));
+        }
+        sets.sort(Comparator.comparingInt(OrdinalSet::cardinality));
+    }
+
+    private static OrdinalSet releasedIn(final LibrarySingleton library,
+                                         final String releaseYear) {
+        if (releaseYear.startsWith(">")) {
+            return library.getYearIndex().after(Integer.parseInt(releaseYear.substring(1)));
+        } else if (releaseYear.startsWith("<")) {
+            return library.getYearIndex().before(Integer.parseInt(releaseYear.substring(1)));
+        }
+        return library.getYearIndex().during(Integer.parseInt(releaseYear));
+    }
+
+    @Override
+    public Iterator<Song> iterator() {
+        if (sets.isEmpty()) {
+            return library.getSongs().iterator();
+        }
+        PrimitiveIterator.OfInt driver = sets.get(0).iterator();
+
+        return new Iterator<>() {
+            private Song next = advance();
+
+            private Song advance() {
+                while (driver.hasNext()) {
+                    int ordinal = driver.nextInt();
+                    boolean inAll = true;
+                    for (int i = 1; i < sets.size() && inAll; ++i) {
+                        inAll = sets.get(i).contains(ordinal);
+                    }
+                    if (inAll) {
+                        return library.getSongsByOrdinal().get(ordinal);
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Song next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                Song song = next;
+                next = advance();
+                return song;
+            }
+        };
+    }
+}
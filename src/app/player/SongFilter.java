@@ -0,0 +1,108 @@
+package app.player;
+
+import app.audio.Song;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.function.Predicate;
+
+/**
+ * A Filter compiled once per search. Every clause is parsed and case-folded up front
+ * and the clauses are ordered so that the cheapest ones reject a song first.
+ */
+public final class SongFilter {
+    private static final int INT_COST = 0;
+    private static final int EQUALS_COST = 1;
+    private static final int PREFIX_COST = 2;
+    private static final int TAGS_COST = 3;
+    private static final int CONTAINS_COST = 4;
+
+    private static final class Clause {
+        private final int cost;
+        private final Predicate<Song> test;
+
+        private Clause(final int cost, final Predicate<Song> test) {
+            this.cost = cost;
+            this.test = test;
+        }
+    }
+
+    private final Clause[] clauses;
+
+    private SongFilter(final ArrayList<Clause> clauses) {
+        clauses.sort(Comparator.comparingInt(clause -> clause.cost));
+        this.clauses = clauses.toArray(new Clause[0]);
+    }
+
+    /**
+     * @param filters the filters given through the search command
+     * @return the compiled form of the filters
+     */
+    public static SongFilter compile(final Filter filters) {
+        ArrayList<Clause> clauses = new ArrayList<>();
+
+        if (filters.getName() != null) {
+            String prefix = filters.getName().toLowerCase();
+            clauses.add(new Clause(PREFIX_COST,
+                    song -> song.getFoldedName().startsWith(prefix)));
+        }
+        if (filters.getAlbum() != null) {
+            String album = filters.getAlbum();
+            clauses.add(new Clause(EQUALS_COST, song -> song.getAlbum().equals(album)));
+        }
+        if (filters.getArtist() != null) {
+            String artist = filters.getArtist();
+            clauses.add(new Clause(EQUALS_COST, song -> song.getArtist().equals(artist)));
+        }
+        if (filters.getGenre() != null) {
+            String genre = filters.getGenre();
+            clauses.add(new Clause(EQUALS_COST, song -> song.getGenre().equalsIgnoreCase(genre)));
+        }
+        if (filters.getTags() != null) {
+            String[] tags = new HashSet<>(filters.getTags()).toArray(new String[0]);
+            clauses.add(new Clause(TAGS_COST, song -> {
+                for (String tag: tags) {
+                    if (!song.getTagSet().contains(tag)) {
+                        return false;
+                    }
+                }
+                return true;
+            }));
+        }
+        if (filters.getLyrics() != null) {
+            String lyrics = filters.getLyrics().toLowerCase();
+            clauses.add(new Clause(CONTAINS_COST,
+                    song -> song.getFoldedLyrics().contains(lyrics)));
+        }
+        if (filters.getReleaseYear() != null) {
+            clauses.add(new Clause(INT_COST, compileReleaseYear(filters.getReleaseYear())));
+        }
+        return new SongFilter(clauses);
+    }
+
+    private static Predicate<Song> compileReleaseYear(final String releaseYear) {
+        if (releaseYear.startsWith(">")) {
+            int year = Integer.parseInt(releaseYear.substring(1));
+            return song -> song.getReleaseYear() > year;
+        } else if (releaseYear.startsWith("<")) {
+            int year = Integer.parseInt(releaseYear.substring(1));
+            return song -> song.getReleaseYear() < year;
+        }
+        int year = Integer.parseInt(releaseYear);
+        return song -> song.getReleaseYear() == year;
+    }
+
+    /**
+     * @param song a given song
+     * @return true if all filters are met, false otherwise
+     */
+    public boolean matches(final Song song) {
+        for (Clause clause: clauses) {
+            if (!clause.test.test(song)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
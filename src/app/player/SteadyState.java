@@ -0,0 +1,119 @@
+package app.player;
+
+import app.audio.AudioFile;
+import app.audio.AudioItem;
+import app.audio.Song;
+import app.audio.SongCollection;
+import app.persons.Listener;
+import app.persons.User;
+
+import java.util.ArrayList;
+
+/**
+ * What a simulation left a player in while a song keeps playing. Until the song ends, the
+ * next simulations can only move the clock forward within the song, so the player derives
+ * their result arithmetically instead of playing the loaded item again.
+ * The state remembers everything the simulation read and holds only while none of it changed.
+ */
+final class SteadyState {
+    private static final String AD_BREAK_NAME = "Ad Break";
+
+    private final AudioItem item;
+    private final Song song;
+    private final Status status;
+    private final String repeat;
+    private final boolean shuffle;
+    private final int seed;
+    private final int trackId;
+    private final User user;
+    private final ArrayList<Song> songs;
+    private final int songsVersion;
+
+    private SteadyState(final AudioPlayer player, final Song song) {
+        item = player.getCurrentItem();
+        this.song = song;
+        status = player.getStatus();
+        repeat = status.getRepeat();
+        shuffle = status.isShuffle();
+        seed = player.getSeed();
+        trackId = player.getTrackId();
+        user = player.getUser();
+        if (item instanceof SongCollection collection) {
+            songs = collection.getSongs();
+            songsVersion = collection.getSongsVersion();
+        } else {
+            songs = null;
+            songsVersion = 0;
+        }
+    }
+
+    /**
+     * @param player the player, right after a simulation
+     * @param file the file the simulation returned
+     * @return the state the player is left in, or null if the next simulation can't be
+     * derived without playing the loaded item
+     */
+    static SteadyState after(final AudioPlayer player, final AudioFile file) {
+        if (!(file instanceof Song song) || song.getName().equals(AD_BREAK_NAME)
+                || player.isAdBreakNext() || !song.getName().equals(player.getStatus().getName())) {
+            return null;
+        }
+        String repeat = player.getStatus().getRepeat();
+        AudioItem item = player.getCurrentItem();
+        if (item == song) {
+            if (!repeat.equals("No Repeat") && !repeat.equals("Repeat Once")
+                    && !repeat.equals("Repeat Infinite")) {
+                return null;
+            }
+        } else if (item instanceof SongCollection collection) {
+            if (!repeat.equals("No Repeat") && !repeat.equals("Repeat All")) {
+                return null;
+            }
+            int position = player.getTrackId();
+            if (position < 0 || position >= collection.getSongs().size()
+                    || collection.getSongs().get(position) != song) {
+                return null;
+            }
+        } else {
+            return null;
+        }
+        return new SteadyState(player, song);
+    }
+
+    /**
+     * @param player the player, with its clock moved forward
+     * @return true if the player still plays the same song, in the same way
+     */
+    boolean holds(final AudioPlayer player) {
+        if (player.getCurrentItem() != item || player.getStatus() != status
+                || player.getUser() != user || player.isAdBreakNext()) {
+            return false;
+        }
+        if (!song.getName().equals(status.getName()) || !repeat.equals(status.getRepeat())
+                || status.isShuffle() != shuffle || player.getSeed() != seed
+                || player.getTrackId() != trackId) {
+            return false;
+        }
+        if (songs != null) {
+            SongCollection collection = (SongCollection) item;
+            if (collection.getSongs() != songs || collection.getSongsVersion() != songsVersion) {
+                return false;
+            }
+        }
+        return player.getElapsedTime() >= 0 && player.getElapsedTime() < song.getDuration();
+    }
+
+    /**
+     * does what playing the loaded item would do while the song is still playing: the listen
+     * counted at the previous simulation is replaced and the remaining time is updated
+     * @param player the player
+     * @return the song still playing
+     */
+    Song replay(final AudioPlayer player) {
+        Listener listener = (Listener) user;
+        listener.addToSongListens(song, -1);
+        listener.addToSongListens(song, 1);
+        status.setRemainedTime(song.getDuration() - player.getElapsedTime());
+        return song;
+    }
+}
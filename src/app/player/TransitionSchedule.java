@@ -0,0 +1,55 @@
+package app.player;
+
+import app.persons.Listener;
+
+import java.util.HashMap;
+
+/**
+ * The moment each player reaches its next transition: the end of the song, episode or ad
+ * playing when it was last updated. Until then, updating the player only moves its clock
+ * forward, which nothing outside the player can observe, so operations that update every
+ * player skip it. A player changed by a command, or whose collection lost songs, is due
+ * right away, since the moment it was scheduled at may not hold anymore.
+ */
+public final class TransitionSchedule {
+    private final HashMap<AudioPlayer, Integer> transitions = new HashMap<>();
+
+    /**
+     * schedules the player after it was updated
+     * @param player the given player
+     * @param timestamp the moment it was updated at
+     */
+    public void updated(final AudioPlayer player, final int timestamp) {
+        if (player.getCurrentItem() == null || player.getStatus().isPaused()
+                || !(player.getUser() instanceof Listener listener) || !listener.isOnline()) {
+            transitions.put(player, Integer.MAX_VALUE);
+            return;
+        }
+        transitions.put(player, timestamp + Math.max(0, player.getStatus().getRemainedTime()));
+    }
+
+    /**
+     * marks the player as due, after something changed it without updating it
+     * @param player the given player
+     */
+    public void touched(final AudioPlayer player) {
+        transitions.remove(player);
+    }
+
+    /**
+     * @param player a player removed from the program
+     */
+    public void remove(final AudioPlayer player) {
+        transitions.remove(player);
+    }
+
+    /**
+     * @param player the given player
+     * @param timestamp the current moment
+     * @return true if updating the player may change more than its clock
+     */
+    public boolean isDue(final AudioPlayer player, final int timestamp) {
+        Integer transition = transitions.get(player);
+        return transition == null || transition <= timestamp;
+    }
+}
@@ -0,0 +1,196 @@
+package app.ranking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * TopK specialized for int scores, higher scores first. The scores live in a primitive
+ * heap, so offering an item neither boxes its score nor allocates.
+ * Equal scores are ordered by the tie break, then by the order the items were offered in.
+ * @param <T> the type of the ranked items
+ */
+public final class IntTopK<T> {
+    private final int k;
+    private final Comparator<? super T> tieBreak;
+    private final Object[] items;
+    private final int[] scores;
+    private final long[] sequences;
+    private int size = 0;
+    private long nextSequence = 0;
+
+    /**
+     * @param k the maximum number of items kept
+     */
+    public IntTopK(final int k) {
+        this(k, null);
+    }
+
+    /**
+     * @param k the maximum number of items kept
+     * @param tieBreak the order of items having the same score, or null for offer order
+     */
+    public IntTopK(final int k, final Comparator<? super T> tieBreak) {
+        this.k = k;
+        this.tieBreak = tieBreak;
+        items = new Object[k];
+        scores = new int[k];
+        sequences = new long[k];
+    }
+
+    @SuppressWarnings("unchecked")
+    private T itemAt(final int position) {
+        return (T) items[position];
+    }
+
+    /**
+     * @return a negative number if the first candidate ranks better than the second
+     */
+    private int compare(final T item1, final int score1, final long sequence1,
+                        final T item2, final int score2, final long sequence2) {
+        if (score1 != score2) {
+            return Integer.compare(score2, score1);
+        }
+        if (tieBreak != null) {
+            int comparison = tieBreak.compare(item1, item2);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return Long.compare(sequence1, sequence2);
+    }
+
+    private int compareAt(final int position1, final int position2) {
+        return compare(itemAt(position1), scores[position1], sequences[position1],
+                itemAt(position2), scores[position2], sequences[position2]);
+    }
+
+    private void swap(final int position1, final int position2) {
+        Object item = items[position1];
+        items[position1] = items[position2];
+        items[position2] = item;
+        int score = scores[position1];
+        scores[position1] = scores[position2];
+        scores[position2] = score;
+        long sequence = sequences[position1];
+        sequences[position1] = sequences[position2];
+        sequences[position2] = sequence;
+    }
+
+    /**
+     * the worst kept candidate is at the root of the heap
+     */
+    private void siftUp(final int start) {
+        int position = start;
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (compareAt(position, parent) <= 0) {
+                return;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(final int start) {
+        int position = start;
+        while (2 * position + 1 < size) {
+            int worst = 2 * position + 1;
+            if (worst + 1 < size && compareAt(worst + 1, worst) > 0) {
+                worst++;
+            }
+            if (compareAt(worst, position) <= 0) {
+                return;
+            }
+            swap(position, worst);
+            position = worst;
+        }
+    }
+
+    /**
+     * @param item the next item
+     * @param score its score
+     */
+    public void offer(final T item, final int score) {
+        long sequence = nextSequence++;
+        if (size < k) {
+            items[size] = item;
+            scores[size] = score;
+            sequences[size] = sequence;
+            siftUp(size++);
+        } else if (k > 0
+                && compare(item, score, sequence, itemAt(0), scores[0], sequences[0]) < 0) {
+            items[0] = item;
+            scores[0] = score;
+            sequences[0] = sequence;
+            siftDown(0);
+        }
+    }
+
+    private Integer[] ranking() {
+        Integer[] positions = new Integer[size];
+        for (int i = 0; i < size; ++i) {
+            positions[i] = i;
+        }
+        Arrays.sort(positions, this::compareAt);
+        return positions;
+    }
+
+    /**
+     * @return the selected items, best first
+     */
+    public ArrayList<T> result() {
+        ArrayList<T> result = new ArrayList<>(size);
+        for (int position: ranking()) {
+            result.add(itemAt(position));
+        }
+        return result;
+    }
+
+    /**
+     * @return the selected items mapped to their scores, best first
+     */
+    public LinkedHashMap<T, Integer> resultWithScores() {
+        LinkedHashMap<T, Integer> result = new LinkedHashMap<>();
+        for (int position: ranking()) {
+            result.put(itemAt(position), scores[position]);
+        }
+        return result;
+    }
+
+    /**
+     * @param counts the count of every key
+     * @param k the maximum number of keys returned
+     * @param tieBreak the order of keys having the same count
+     * @param <K> the type of the keys
+     * @return the k keys with the highest counts mapped to their counts, best first
+     */
+    public static <K> LinkedHashMap<K, Integer> topCounts(final Map<K, Integer> counts,
+                                                          final int k,
+                                                          final Comparator<? super K> tieBreak) {
+        IntTopK<K> top = new IntTopK<>(k, tieBreak);
+        for (Map.Entry<K, Integer> entry: counts.entrySet()) {
+            top.offer(entry.getKey(), entry.getValue());
+        }
+        return top.resultWithScores();
+    }
+
+    /**
+     * @param items the given items
+     * @param k the maximum number of items returned
+     * @param score the score of an item
+     * @param <T> the type of the items
+     * @return the k items with the highest scores, best first, equal scores in offer order
+     */
+    public static <T> ArrayList<T> select(final Iterable<? extends T> items, final int k,
+                                          final ToIntFunction<? super T> score) {
+        IntTopK<T> top = new IntTopK<>(k);
+        for (T item: items) {
+            top.offer(item, score.applyAsInt(item));
+        }
+        return top.result();
+    }
+}
@@ -50,6 +50,8 @@ public final class Command {
         LibrarySingleton myLibrary = LibrarySingleton.getInstance();
         Listener listener;
         Artist artist;
+        myLibrary.advanceTrendingChart(timestamp);
+        myLibrary.getTransitionSchedule().touched(currentPlayer);
         switch (command) {
             case "search" -> {
                 if (currentPlayer.getUser() == null) {
@@ -103,6 +105,8 @@ public final class Command {
             }
             case "getTop5Songs" ->
                     outputs.add(objectMapper.valueToTree(myLibrary.getTop5Songs(this)));
+            case "getTrendingSongs" ->
+                    outputs.add(objectMapper.valueToTree(myLibrary.getTrendingSongs(this)));
             case "getTop5Playlists" ->
                     outputs.add(objectMapper.valueToTree(myLibrary.getTop5Playlists(this)));
             case "getTop5Artists" ->
@@ -124,6 +128,14 @@ public final class Command {
                 }
                 outputs.add(objectMapper.valueToTree(artist.showAlbums(this)));
             }
+            case "showMerchSales" -> {
+                artist = myLibrary.findArtistByName(username);
+                if (artist == null) {
+                    System.err.println("Artist does not exist.");
+                    break;
+                }
+                outputs.add(objectMapper.valueToTree(artist.showMerchSales(this)));
+            }
             case "removeAlbum" ->
                     outputs.add(objectMapper.valueToTree(currentPlayer.removeAlbum(this)));
             case "changePage" ->
@@ -180,5 +192,7 @@ public final class Command {
                     outputs.add(objectMapper.valueToTree(currentPlayer.loadRecommendations(this)));
             default -> System.err.println("Invalid command");
         }
+        // the command may have changed the player after updating it
+        myLibrary.getTransitionSchedule().touched(currentPlayer);
     }
 }
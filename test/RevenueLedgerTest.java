@@ -0,0 +1,85 @@
+import app.persons.RevenueLedger;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Checks that RevenueLedger reports the figures of the double sums the end of program report
+ * was first written with, on fractional splits: 1,000,000 split among 3 and among 7 songs with
+ * uneven listens, settled several times, and shares smaller than a micro-unit. Run it against
+ * the compiled sources, e.g. with them in out/:
+ *   javac -cp out -d out test/RevenueLedgerTest.java
+ *   java -cp out RevenueLedgerTest
+ */
+public final class RevenueLedgerTest {
+    private static final double REVENUE = 1_000_000;
+    private static final double HUNDRED = 100.0;
+    private static final int SETTLEMENTS = 5;
+    private static final int[][] LISTENS = {
+        {1, 1, 1},
+        {1, 2, 3, 4, 5, 6, 7},
+        {3, 1, 4, 1, 5, 9, 2},
+    };
+    private static final int TINY_SHARE_LISTENS = 3_000_000;
+
+    private RevenueLedgerTest() {
+    }
+
+    private static void check(final boolean condition, final String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    private static String expectedBest(final Map<String, Double> songProfits) {
+        return songProfits.entrySet().stream()
+                .filter(entry -> entry.getValue() != 0.0)
+                .max((entry1, entry2) -> {
+                    int valueComparison = entry1.getValue().compareTo(entry2.getValue());
+                    return valueComparison != 0 ? valueComparison
+                            : entry2.getKey().compareTo(entry1.getKey());
+                })
+                .map(Map.Entry::getKey)
+                .orElse("N/A");
+    }
+
+    private static void compare(final String name, final int[] listens, final double revenue) {
+        RevenueLedger ledger = new RevenueLedger();
+        HashMap<String, Double> songProfits = new HashMap<>();
+        int revenueSongs = 0;
+        for (int share: listens) {
+            revenueSongs += share;
+        }
+        for (int settlement = 0; settlement < SETTLEMENTS; ++settlement) {
+            for (int song = 0; song < listens.length; ++song) {
+                double songRevenue = revenue * listens[song] / revenueSongs;
+                ledger.credit("song" + song, songRevenue);
+                songProfits.merge("song" + song, songRevenue, Double::sum);
+            }
+        }
+        double expectedTotal = songProfits.values().stream()
+                .mapToDouble(Double::doubleValue).sum();
+
+        check(ledger.getTotal() == expectedTotal, name + ": the totals differ");
+        check(ledger.roundedTotal() == Math.round(expectedTotal * HUNDRED) / HUNDRED,
+                name + ": the rounded totals differ");
+        check(ledger.mostProfitableSong().equals(expectedBest(songProfits)),
+                name + ": the most profitable songs differ");
+        System.out.println(name + ": total " + ledger.roundedTotal() + ", most profitable "
+                + ledger.mostProfitableSong());
+    }
+
+    public static void main(final String[] args) {
+        for (int[] listens: LISTENS) {
+            compare(REVENUE + " among " + listens.length + " songs", listens, REVENUE);
+        }
+        compare("1.0 among " + TINY_SHARE_LISTENS + " listens",
+                new int[] {1, TINY_SHARE_LISTENS - 1}, 1.0);
+
+        RevenueLedger ledger = new RevenueLedger();
+        ledger.credit("tiny", 1.0 / TINY_SHARE_LISTENS);
+        check(ledger.mostProfitableSong().equals("tiny"),
+                "a share smaller than a micro-unit was lost");
+        System.out.println("RevenueLedgerTest passed");
+    }
+}
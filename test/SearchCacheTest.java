@@ -0,0 +1,61 @@
+import app.audio.LibrarySingleton;
+import app.player.AudioPlayer;
+import app.player.SearchCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import fileio.input.LibraryInput;
+import main.Command;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Runs the same song search twice and checks that the second one is answered by the search
+ * cache: the hits go up by one and no search is run or cached again. Run it against the
+ * compiled sources, e.g. with them in out/ and jackson on the classpath, from a directory
+ * whose input/library/library.json holds a library with at least one user:
+ *   javac -cp out:jackson/* -d out test/SearchCacheTest.java
+ *   java -cp out:jackson/* SearchCacheTest
+ */
+public final class SearchCacheTest {
+    private static final String LIBRARY = "input/library/library.json";
+
+    private SearchCacheTest() {
+    }
+
+    private static void check(final boolean condition, final String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    public static void main(final String[] args) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        LibraryInput input = objectMapper.readValue(new File(LIBRARY), LibraryInput.class);
+        LibrarySingleton library = LibrarySingleton.getInstance();
+        library.getInput(input);
+        String username = input.getUsers().get(0).getUsername();
+
+        Command search = objectMapper.readValue("{\"command\": \"search\", \"username\": \""
+                + username + "\", \"timestamp\": 1, \"type\": \"song\","
+                + " \"filters\": {\"name\": \"a\"}}", Command.class);
+        AudioPlayer player = new AudioPlayer(search);
+        library.getAudioPlayers().put(username, player);
+        ArrayNode outputs = objectMapper.createArrayNode();
+        SearchCache cache = library.getSearchCache();
+
+        search.execute(outputs, player, objectMapper);
+        long hits = cache.getHits();
+        long misses = cache.getMisses();
+        int size = cache.size();
+        search.execute(outputs, player, objectMapper);
+
+        check(cache.getHits() == hits + 1, "the repeated search was not a cache hit");
+        check(cache.getMisses() == misses, "the repeated search was run again");
+        check(cache.size() == size, "the repeated search was cached again");
+        check(outputs.get(0).equals(outputs.get(1)),
+                "the cached search gave different results");
+        System.out.println("SearchCacheTest passed: " + cache.getHits() + " hits, "
+                + cache.getMisses() + " misses, " + cache.size() + " cached searches");
+    }
+}